@@ -0,0 +1,10 @@
+#!/bin/sh
+# Запуск util.jar с архивом AppCDS из профиля cds. Архива нет — JVM стартует как обычно.
+# Архив от другой сборки jar или другой JDK JVM не принимает и завершается с ошибкой (-Xshare:on),
+# а не работает молча без ускорения: пересоберите его через mvn -P cds verify.
+DIR=$(cd "$(dirname "$0")" && pwd)
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+if [ -f "$DIR/util.jsa" ]; then
+    exec "$JAVA" -XX:SharedArchiveFile="$DIR/util.jsa" -Xshare:on -jar "$DIR/util.jar" "$@"
+fi
+exec "$JAVA" -jar "$DIR/util.jar" "$@"
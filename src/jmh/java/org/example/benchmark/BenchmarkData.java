@@ -0,0 +1,75 @@
+package org.example.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генерация входных строк для бенчмарков с заданной долей целых, дробных и строк.
+ * Фиксированный seed — одинаковые данные от запуска к запуску.
+ */
+final class BenchmarkData {
+
+    private static final long SEED = 20240501L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Смесь задаётся как "int:float:string" в процентах, например "40:30:30".
+     */
+    static List<String> lines(int count, String mix) {
+        int[] shares = parseMix(mix);
+        Random random = new Random(SEED);
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int roll = random.nextInt(100);
+            if (roll < shares[0]) {
+                lines.add(Long.toString(random.nextLong() >> random.nextInt(64)));
+            } else if (roll < shares[0] + shares[1]) {
+                lines.add(Double.toString((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12) - 4)));
+            } else {
+                lines.add(randomWord(random));
+            }
+        }
+        return lines;
+    }
+
+    static void writeFile(Path file, int count, String mix) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (String line : lines(count, mix)) {
+                out.write(line);
+                out.newLine();
+            }
+        }
+    }
+
+    private static String randomWord(Random random) {
+        int length = 3 + random.nextInt(30);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) (random.nextInt(8) == 0 ? ' ' : 'a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    private static int[] parseMix(String mix) {
+        String[] parts = mix.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Mix must be int:float:string, got: " + mix);
+        }
+        int[] shares = new int[3];
+        for (int i = 0; i < 3; i++) {
+            shares[i] = Integer.parseInt(parts[i].trim());
+        }
+        if (shares[0] + shares[1] + shares[2] != 100) {
+            throw new IllegalArgumentException("Mix shares must add up to 100, got: " + mix);
+        }
+        return shares;
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.benchmark;
+
+import org.example.dto.FilterConfig;
+import org.example.engine.DataFilterEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный прогон DataFilterEngine.process на сгенерированных файлах.
+ * Размер и состав данных задаются параметрами, например:
+ * -p lines=10000000 -p mix=80:10:10 -p files=4 -p threads=4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DataFilterEngineBenchmark {
+
+    // Всего строк во всех входных файлах
+    @Param({"1000000"})
+    public int lines;
+
+    // Доли целых, дробных и строк в процентах
+    @Param({"40:30:30"})
+    public String mix;
+
+    @Param({"1", "4"})
+    public int files;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    @Param({"false"})
+    public boolean mmap;
+
+    private Path inputDir;
+    private Path outputDir;
+    private FilterConfig config;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() throws IOException {
+        inputDir = Files.createTempDirectory("engine-bench-in");
+        outputDir = Files.createTempDirectory("engine-bench-out");
+        List<Path> inputs = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            Path input = inputDir.resolve("input" + i + ".txt");
+            BenchmarkData.writeFile(input, lines / files, mix);
+            inputs.add(input);
+        }
+        config = FilterConfig.builder()
+                .outputPath(outputDir)
+                .filePrefix("bench_")
+                .inputFiles(inputs)
+                .threads(threads)
+                .mappedInput(mmap)
+                .build();
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        BenchmarkFiles.deleteRecursively(inputDir);
+        BenchmarkFiles.deleteRecursively(outputDir);
+    }
+
+    @Benchmark
+    public DataFilterEngine process() throws IOException {
+        DataFilterEngine engine = new DataFilterEngine();
+        engine.process(config);
+        return engine;
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.benchmark;
+
+import org.example.dto.FilterConfig;
+import org.example.model.DataType;
+import org.example.util.FileWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись строк в файл типа: по одной строке, пакетом и готовыми байтами.
+ * Файлы пересоздаются на каждой итерации во временной директории.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class FileWriterBenchmark {
+
+    private static final int LINES = 4096;
+
+    // 0 — размер буфера по умолчанию
+    @Param({"0", "65536"})
+    public int writeBufferSize;
+
+    private Path dir;
+    private List<String> lines;
+    private byte[] bytes;
+    private FileWriter writer;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("filewriter-bench");
+        lines = BenchmarkData.lines(LINES, "0:0:100");
+        bytes = (String.join(System.lineSeparator(), lines) + System.lineSeparator())
+                .getBytes(StandardCharsets.UTF_8);
+        // FileWriter сообщает об открытии файлов в stdout — в результатах бенчмарка это лишнее
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Setup(Level.Iteration)
+    public void openWriter() {
+        writer = new FileWriter(FilterConfig.builder()
+                .outputPath(dir)
+                .filePrefix("bench_")
+                .writeBufferSize(writeBufferSize)
+                .build());
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeWriter() {
+        writer.close();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        BenchmarkFiles.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void writeLineByLine() {
+        for (String line : lines) {
+            writer.write(DataType.STRING, line);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void writeAll() {
+        writer.writeAll(DataType.STRING, lines);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void writeBytes() {
+        writer.write(DataType.STRING, bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разовый запуск утилиты отдельным процессом на маленьком файле — от старта JVM до выхода,
+ * как при тысячах вызовов в день. Сравнивает обычный java -jar и запуск с архивом AppCDS.
+ * Нужны target/util.jar и target/util.jsa из отдельной сборки профиля cds; бенчмарк запускается без
+ * пересборки jar, иначе архив перестанет ему соответствовать:
+ * <pre>
+ * mvn -P cds -DskipTests verify
+ * mvn -P jmh test-compile exec:exec@run-benchmarks -Djmh.args=StartupBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({"false", "true"})
+    public boolean cds;
+
+    private final Path jar = Path.of(System.getProperty("startup.jar", "target/util.jar")).toAbsolutePath();
+    private final Path archive = Path.of(System.getProperty("startup.archive", "target/util.jsa")).toAbsolutePath();
+    private Path workDir;
+    private List<String> command;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (!Files.exists(jar) || (cds && !Files.exists(archive))) {
+            throw new IllegalStateException("Build " + jar + " and " + archive + " with mvn -P cds verify first");
+        }
+        workDir = Files.createTempDirectory("startup-bench");
+        Path input = workDir.resolve("input.txt");
+        BenchmarkData.writeFile(input, 100, "40:30:30");
+
+        command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (cds) {
+            command.add("-XX:SharedArchiveFile=" + archive);
+            // Неподходящий архив — ошибка запуска, а не тихий замер без CDS
+            command.add("-Xshare:on");
+        }
+        command.addAll(List.of("-jar", jar.toString(), "-o", workDir.toString(), "-s", input.toString()));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkFiles.deleteRecursively(workDir);
+    }
+
+    @Benchmark
+    public int launch() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("Launch failed with exit code " + exitCode);
+        }
+        return exitCode;
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.benchmark;
+
+import org.example.model.ParsedValue;
+import org.example.model.TotalStats;
+import org.example.util.TypeDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Обновление статистики уже классифицированными значениями: прежний путь через строку
+ * и путь с готовым ParsedValue, с дополнительными оценками и без них.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class TotalStatsBenchmark {
+
+    private static final int LINES = 4096;
+
+    @Param({"40:30:30"})
+    public String mix;
+
+    // none — только базовая статистика; distinct, top — с соответствующей оценкой
+    @Param({"none", "distinct", "top"})
+    public String sketches;
+
+    private String[] lines;
+    private ParsedValue[] parsed;
+    private TotalStats stats;
+
+    @Setup
+    public void setUp() {
+        List<String> generated = BenchmarkData.lines(LINES, mix);
+        lines = generated.toArray(new String[0]);
+        parsed = new ParsedValue[LINES];
+        TypeDetector typeDetector = new TypeDetector();
+        for (int i = 0; i < LINES; i++) {
+            parsed[i] = new ParsedValue();
+            typeDetector.classify(lines[i], parsed[i]);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStats() {
+        stats = new TotalStats();
+        switch (sketches) {
+            case "distinct" -> stats.enableDistinctCounts();
+            case "top" -> stats.enableTopStrings(10);
+            default -> {
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public TotalStats updateStatFromString() {
+        for (int i = 0; i < LINES; i++) {
+            stats.updateStat(parsed[i].getType(), lines[i]);
+        }
+        return stats;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public TotalStats updateStatFromParsedValue() {
+        for (int i = 0; i < LINES; i++) {
+            stats.updateStat(parsed[i], lines[i]);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.benchmark;
+
+import org.example.model.DataType;
+import org.example.model.ParsedValue;
+import org.example.util.TypeDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Классификация строки: только тип и тип вместе с разобранным значением.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class TypeDetectorBenchmark {
+
+    private static final int LINES = 4096;
+
+    @Param({"100:0:0", "0:100:0", "0:0:100", "40:30:30"})
+    public String mix;
+
+    private final TypeDetector typeDetector = new TypeDetector();
+    private final ParsedValue parsed = new ParsedValue();
+    private String[] lines;
+
+    @Setup
+    public void setUp() {
+        lines = BenchmarkData.lines(LINES, mix).toArray(new String[0]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void detectType(Blackhole bh) {
+        for (String line : lines) {
+            bh.consume(typeDetector.detectType(line));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void classify(Blackhole bh) {
+        for (String line : lines) {
+            DataType type = typeDetector.classify(line, parsed);
+            bh.consume(type);
+            bh.consume(parsed.getLongValue());
+            bh.consume(parsed.getDoubleValue());
+        }
+    }
+}
@@ -7,12 +7,19 @@ import org.example.model.TotalStats;
 import org.example.util.StatisticsPrinter;
 
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class ApplicationRunner {
     private final ArgsParser argsParser;
     private final DataFilterEngine engine;
     private final StatisticsPrinter statisticsPrinter;
 
+    // Сколько обработчик завершения ждёт, пока --follow сохранит результаты
+    private static final long FOLLOW_STOP_TIMEOUT_SECONDS = 10;
+
     // Цепочка конструкторов (тут вызвается конструктор для тестов и в него пихаются new-аргументы)
     public ApplicationRunner() {
         this(new ArgsParser(), new DataFilterEngine(), new StatisticsPrinter());
@@ -28,26 +35,74 @@ public class ApplicationRunner {
     }
 
     public int run(String[] args) {
+        return run(args, Path.of(""), System.out, System.err);
+    }
+
+    /**
+     * Запуск с заданными каталогом и потоками вывода: так выполняет задания демон.
+     *
+     * @param workingDir каталог, относительно которого разрешаются пути из args
+     */
+    public int run(String[] args, Path workingDir, PrintStream out, PrintStream err) {
+        CountDownLatch finished = new CountDownLatch(1);
+        Thread stopHook = null;
         try {
             // Получаем данные из args
-            FilterConfig config = argsParser.parse(args);
+            FilterConfig config = argsParser.parse(args, workingDir);
+            if (config.follow()) {
+                // --follow работает до Ctrl+C/SIGTERM: даём дописать выходы, статистику и контрольную точку
+                stopHook = new Thread(() -> {
+                    engine.stop();
+                    awaitQuietly(finished, FOLLOW_STOP_TIMEOUT_SECONDS);
+                }, "follow-stop");
+                Runtime.getRuntime().addShutdownHook(stopHook);
+            }
+            // Служебные сообщения записи — в потоки этого запуска (у демона — клиента)
+            engine.setOut(out);
+            engine.setErr(err);
             // Обработка файлов + сбор статистики + запись в новые файлы
             engine.process(config);
-            // Получение собранной статистики
-            TotalStats stats = engine.getTotalStats();
-            // Вывод статистики
-            statisticsPrinter.print(stats, config.fullStats());
+            // Получение собранной статистики: за запуск или накопленной по выходным файлам
+            TotalStats stats = config.cumulativeStats() ? engine.getCumulativeStats() : engine.getTotalStats();
+            // Вывод статистики; если в stdout идут строки (--stdout), то в stderr
+            statisticsPrinter.print(stats, config.fullStats(), config.stdoutType() != null ? err : out);
+            // Метрики — в stderr, чтобы не смешивать их со статистикой
+            if (config.metrics()) {
+                err.println(engine.getMetrics().toJson());
+            }
             return 0;
         } catch (IllegalArgumentException e) {
-            System.err.println("Argument error: " + e.getMessage());
+            err.println("Argument error: " + e.getMessage());
             return 1;
         } catch (IOException e) {
-            System.err.println("I/O error: " + e.getMessage());
+            err.println("I/O error: " + e.getMessage());
             return 2;
         } catch (Exception e) {
-            System.err.println("Processing error: " + e.getMessage());
-            e.printStackTrace();
+            err.println("Processing error: " + e.getMessage());
+            e.printStackTrace(err);
             return 3;
+        } finally {
+            finished.countDown();
+            removeQuietly(stopHook);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch, long seconds) {
+        try {
+            latch.await(seconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void removeQuietly(Thread hook) {
+        if (hook == null) {
+            return;
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(hook);
+        } catch (IllegalStateException e) {
+            // JVM уже завершается, обработчик выполняется
         }
     }
 }
\ No newline at end of file
@@ -1,10 +1,23 @@
 package org.example;
 
+import org.example.daemon.DaemonClient;
+import org.example.daemon.DaemonServer;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
 public class Main {
     public static void main(String[] args) {
+        // Режимы демона разбираются до commons-cli: клиенту не нужны ни разбор опций, ни движок
+        if (args.length == 2 && args[0].equals("--daemon")) {
+            System.exit(DaemonServer.run(Path.of(args[1])));
+        }
+        if (args.length >= 2 && args[0].equals("--connect")) {
+            System.exit(DaemonClient.run(Path.of(args[1]), Arrays.copyOfRange(args, 2, args.length)));
+        }
         ApplicationRunner app = new ApplicationRunner();
         int exitCode = app.run(args);
         System.exit(exitCode);
 
     }
-}
\ No newline at end of file
+}
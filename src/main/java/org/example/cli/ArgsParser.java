@@ -5,6 +5,10 @@ import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.example.dto.FilterConfig;
+import org.example.model.DataType;
+import org.example.model.TypeRegistry;
+import org.example.util.FileWriter;
+import org.example.util.StandardStreams;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -16,19 +20,46 @@ import java.util.List;
 public class ArgsParser { // Command Line Interface Parser
 
     public static FilterConfig parse(String[] args) throws ParseException, IllegalArgumentException {
+        return parse(args, Path.of(""));
+    }
+
+    /**
+     * @param workingDir каталог, относительно которого разрешаются пути (у демона — каталог клиента)
+     */
+    public static FilterConfig parse(String[] args, Path workingDir) throws ParseException, IllegalArgumentException {
         Options options = new Options();
         options.addOption("o", "output", true,  "Output directory");
         options.addOption("p", "prefix", true,  "Filename prefix");
         options.addOption("a", false, "Append mode");
         options.addOption("s", false, "Short statistics");
         options.addOption("f", false, "Full statistics");
+        options.addOption(null, "threads", true, "Number of worker threads");
+        options.addOption(null, "mmap", false, "Read input files through memory mapping");
+        options.addOption(null, "pipeline", false, "Run reading, classification and writing as pipeline stages");
+        options.addOption(null, "write-buffer", true, "Output buffer size per type in bytes");
+        options.addOption(null, "cumulative", false, "Print statistics for all data in the output files");
+        options.addOption(null, "big-integers", false, "Treat integers beyond the long range as integers");
+        options.addOption(null, "distinct", false, "Estimate the number of distinct values of each type");
+        options.addOption(null, "top", true, "Report the K most frequent strings");
+        options.addOption(null, "metrics", false, "Print run metrics as JSON to stderr");
+        options.addOption(null, "progress", false, "Periodically report progress, throughput and ETA to stderr");
+        options.addOption(null, "stdout", true, "Write lines of one type (integers, floats, strings or an enabled --types name) to stdout");
+        options.addOption(null, "gzip", false, "Write gzip-compressed output files (*.txt.gz)");
+        options.addOption(null, "gzip-level", true, "Compression level for --gzip, 1-9");
+        options.addOption(null, "follow", false, "Keep reading lines appended to the input files until stopped");
+        options.addOption(null, "checkpoint", false, "Periodically save a checkpoint to resume after a crash");
+        options.addOption(null, "resume", false, "Continue an interrupted --checkpoint run from its checkpoint");
+        options.addOption(null, "types", true, "Also recognize these types, comma-separated: dates, uuids, hex, ipv4");
 
         CommandLine cmd = new DefaultParser().parse(options, args);
 
         // Получаем файлы
         List<Path> inputFiles = new ArrayList<>();
         for (String inputFile : cmd.getArgs()) {
-            inputFiles.add(Path.of(inputFile));
+            // "-" — stdin, а не файл в рабочем каталоге
+            inputFiles.add(inputFile.equals(StandardStreams.STDIN_NAME)
+                    ? Path.of(inputFile)
+                    : workingDir.resolve(inputFile));
         }
 
         if (inputFiles.isEmpty()) {
@@ -38,19 +69,128 @@ public class ArgsParser { // Command Line Interface Parser
         // Получаем значения опций (null — если не задано)
         String outVal    = cmd.getOptionValue("o", null);
         String prefixVal = cmd.getOptionValue("p", null);
+        int threads      = parsePositiveInt(cmd.getOptionValue("threads", "1"), "threads");
+        int writeBuffer  = cmd.hasOption("write-buffer")
+                ? parsePositiveInt(cmd.getOptionValue("write-buffer"), "write-buffer")
+                : 0;
+        int topStrings   = cmd.hasOption("top") ? parsePositiveInt(cmd.getOptionValue("top"), "top") : 0;
+        List<DataType> patternTypes = cmd.hasOption("types") ? parsePatternTypes(cmd.getOptionValue("types")) : List.of();
+        DataType stdoutType = cmd.hasOption("stdout")
+                ? parseType(cmd.getOptionValue("stdout"), "stdout", patternTypes)
+                : null;
+        int gzipLevel    = cmd.hasOption("gzip-level")
+                ? parseGzipLevel(cmd.getOptionValue("gzip-level"))
+                : cmd.hasOption("gzip") ? FileWriter.DEFAULT_GZIP_LEVEL : 0;
+
+        // С --follow контрольные точки свои, и эти ограничения к нему не относятся
+        if ((cmd.hasOption("checkpoint") || cmd.hasOption("resume")) && !cmd.hasOption("follow")) {
+            checkCheckpointable(cmd, threads, stdoutType, inputFiles);
+        }
 
         // Преобразуем путь, или передаём null, чтобы record подставил Path.of("")
-        Path outputPath = outVal != null ? Path.of(outVal) : inputFiles.getFirst().getParent();
+        Path outputPath = outVal != null ? workingDir.resolve(outVal) : inputFiles.getFirst().getParent();
 
         // Строим и возвращаем FilterConfig
-        return new FilterConfig(
-                outputPath,         // будет в папке с input файлами по умолчанию, если null
-                prefixVal,          // будет "" по умолчанию, если null
-                cmd.hasOption("a"), // appendMode
-                cmd.hasOption("s"), // shortStats
-                cmd.hasOption("f"), // fullStats
-                inputFiles          // Будет List.of() по умолчанию
-        );
+        return FilterConfig.builder()
+                .outputPath(outputPath)          // будет в папке с input файлами по умолчанию, если null
+                .filePrefix(prefixVal)           // будет "" по умолчанию, если null
+                .appendMode(cmd.hasOption("a"))
+                .shortStats(cmd.hasOption("s"))
+                .fullStats(cmd.hasOption("f"))
+                .inputFiles(inputFiles)          // Будет List.of() по умолчанию
+                .threads(threads)                // 1 — последовательная обработка
+                .mappedInput(cmd.hasOption("mmap"))
+                .pipelined(cmd.hasOption("pipeline"))
+                .writeBufferSize(writeBuffer)    // 0 — размер по умолчанию
+                .cumulativeStats(cmd.hasOption("cumulative"))
+                .bigIntegers(cmd.hasOption("big-integers"))
+                .distinctCounts(cmd.hasOption("distinct"))
+                .topStrings(topStrings)          // 0 — без сводки частых строк
+                .metrics(cmd.hasOption("metrics"))
+                .progress(cmd.hasOption("progress"))
+                .stdoutType(stdoutType)          // null — все типы в файлы
+                .gzipLevel(gzipLevel)            // 0 — без сжатия
+                .follow(cmd.hasOption("follow"))
+                .checkpoints(cmd.hasOption("checkpoint") || cmd.hasOption("resume"))
+                .resume(cmd.hasOption("resume"))
+                .patternTypes(patternTypes)      // пусто — без лексических типов
+                .build();
+    }
+
+    // Контрольная точка хранит смещение в каждом входе, поэтому файлы читаются по одному и потоково
+    private static void checkCheckpointable(CommandLine cmd, int threads, DataType stdoutType, List<Path> inputFiles) {
+        if (threads > 1 || cmd.hasOption("pipeline") || cmd.hasOption("mmap")) {
+            throw new IllegalArgumentException(
+                    "--checkpoint and --resume need sequential streaming input, without --threads, --pipeline or --mmap");
+        }
+        if (stdoutType != null) {
+            throw new IllegalArgumentException("--checkpoint and --resume cannot be combined with --stdout");
+        }
+        if (inputFiles.contains(Path.of(StandardStreams.STDIN_NAME))) {
+            throw new IllegalArgumentException("--checkpoint and --resume cannot read stdin");
+        }
+    }
+
+    private static int parsePositiveInt(String value, String option) {
+        try {
+            int result = Integer.parseInt(value);
+            if (result > 0) {
+                return result;
+            }
+        } catch (NumberFormatException ignored) {
+            // Сообщение ниже
+        }
+        throw new IllegalArgumentException("Option --" + option + " expects a positive integer, got: " + value);
+    }
+
+    private static int parseGzipLevel(String value) {
+        int level = parsePositiveInt(value, "gzip-level");
+        if (level > 9) {
+            throw new IllegalArgumentException("Option --gzip-level expects a level from 1 to 9, got: " + value);
+        }
+        return level;
+    }
+
+    // Тип называется так же, как его выходной файл; типы из реестра — только включённые в --types
+    private static DataType parseType(String value, String option, List<DataType> patternTypes) {
+        return switch (value) {
+            case "integers" -> DataType.INTEGER;
+            case "floats" -> DataType.FLOAT;
+            case "strings" -> DataType.STRING;
+            default -> {
+                TypeRegistry.Definition definition = TypeRegistry.byName(value);
+                if (definition == null || !patternTypes.contains(definition.type())) {
+                    throw new IllegalArgumentException("Option --" + option
+                            + " expects integers, floats, strings or a type enabled with --types, got: " + value);
+                }
+                yield definition.type();
+            }
+        };
+    }
+
+    // Список имён через запятую в порядке реестра, без повторов
+    private static List<DataType> parsePatternTypes(String value) {
+        List<DataType> types = new ArrayList<>();
+        for (String name : value.split(",")) {
+            TypeRegistry.Definition definition = TypeRegistry.byName(name.trim());
+            if (definition == null) {
+                throw new IllegalArgumentException("Option --types expects names from "
+                        + registryNames() + ", got: " + name);
+            }
+            if (!types.contains(definition.type())) {
+                types.add(definition.type());
+            }
+        }
+        types.sort(null);
+        return List.copyOf(types);
+    }
+
+    private static String registryNames() {
+        List<String> names = new ArrayList<>();
+        for (TypeRegistry.Definition definition : TypeRegistry.definitions()) {
+            names.add(definition.name());
+        }
+        return String.join(", ", names);
     }
 
 }
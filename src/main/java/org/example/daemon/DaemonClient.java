@@ -0,0 +1,56 @@
+package org.example.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+/**
+ * Тонкий клиент демона (--connect): пересылает аргументы и рабочий каталог в {@link DaemonServer}
+ * и выводит то, что задание напечатало. Не загружает ни разбор опций, ни движок.
+ */
+public final class DaemonClient {
+
+    private DaemonClient() {
+    }
+
+    /**
+     * Точка входа режима --connect.
+     *
+     * @return код завершения задания или 2, если до демона не достучаться
+     */
+    public static int run(Path socketPath, String[] args) {
+        try {
+            return run(socketPath, args, Path.of("").toAbsolutePath(), System.out, System.err);
+        } catch (IOException e) {
+            System.err.println("Daemon connection error: " + e.getMessage());
+            return 2;
+        }
+    }
+
+    // Относительные пути в args разрешаются демоном относительно workingDir
+    public static int run(Path socketPath, String[] args, Path workingDir,
+                          OutputStream out, OutputStream err) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+             DataOutputStream request = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            DaemonProtocol.writeRequest(request, workingDir, args);
+            while (true) {
+                byte kind = in.readByte();
+                if (kind == DaemonProtocol.EXIT) {
+                    out.flush();
+                    err.flush();
+                    return in.readInt();
+                }
+                byte[] frame = in.readNBytes(in.readInt());
+                (kind == DaemonProtocol.STDERR ? err : out).write(frame);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * Протокол демона поверх Unix domain socket. Клиент отправляет свой рабочий каталог и аргументы,
+ * сервер в ответ — кадры вывода задания (stdout или stderr) и последним кадр с кодом завершения.
+ */
+final class DaemonProtocol {
+
+    private static final int MAGIC = 0x53484654; // "SHFT"
+    private static final int VERSION = 1;
+
+    // Вид кадра ответа
+    static final byte EXIT = 0;
+    static final byte STDOUT = 1;
+    static final byte STDERR = 2;
+
+    private DaemonProtocol() {
+    }
+
+    static void writeRequest(DataOutputStream out, Path workingDir, String[] args) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(workingDir.toString());
+        out.writeInt(args.length);
+        for (String arg : args) {
+            out.writeUTF(arg);
+        }
+        out.flush();
+    }
+
+    static Request readRequest(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Unknown daemon request format");
+        }
+        Path workingDir = Path.of(in.readUTF());
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupted daemon request argument count: " + count);
+        }
+        String[] args = new String[count];
+        for (int i = 0; i < count; i++) {
+            args[i] = in.readUTF();
+        }
+        return new Request(workingDir, args);
+    }
+
+    record Request(Path workingDir, String[] args) {
+    }
+
+    // Поток вывода задания: каждая запись уходит клиенту отдельным кадром
+    static final class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+        private final byte kind;
+
+        FrameOutputStream(DataOutputStream out, byte kind) {
+            this.out = out;
+            this.kind = kind;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            // stdout и stderr задания пишут в один сокет
+            synchronized (out) {
+                out.writeByte(kind);
+                out.writeInt(len);
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (out) {
+                out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package org.example.daemon;
+
+import org.example.ApplicationRunner;
+import org.example.cli.ArgsParser;
+import org.example.dto.FilterConfig;
+import org.example.engine.DataFilterEngine;
+import org.example.util.StandardStreams;
+import org.example.util.StatisticsPrinter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Резидентный режим (--daemon): JVM запускается один раз и выполняет задания, присланные
+ * {@link DaemonClient} через Unix domain socket. Так на каждом маленьком файле не платится запуск JVM,
+ * загрузка классов и прогрев JIT. Задание — те же аргументы, что у командной строки; у каждого
+ * задания свой {@link DataFilterEngine} и своя статистика, а скомпилированный код общий.
+ */
+public class DaemonServer implements AutoCloseable {
+
+    private final Path socketPath;
+    private final ServerSocketChannel server;
+    private final ExecutorService workers;
+
+    /**
+     * @param workers сколько заданий выполнять одновременно
+     */
+    public DaemonServer(Path socketPath, int workers) throws IOException {
+        this.socketPath = socketPath;
+        removeStaleSocket(socketPath);
+        this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+        this.workers = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "daemon-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Точка входа режима --daemon: обслуживает задания до остановки процесса (Ctrl+C, SIGTERM).
+     *
+     * @return код завершения процесса
+     */
+    public static int run(Path socketPath) {
+        try (DaemonServer server = new DaemonServer(socketPath, Runtime.getRuntime().availableProcessors())) {
+            Runtime.getRuntime().addShutdownHook(new Thread(server::closeQuietly, "daemon-stop"));
+            System.err.println("Daemon is listening on " + socketPath);
+            server.serve();
+            return 0;
+        } catch (IOException e) {
+            System.err.println("I/O error: " + e.getMessage());
+            return 2;
+        }
+    }
+
+    // Принимает задания, пока сервер не закрыт
+    public void serve() throws IOException {
+        while (true) {
+            SocketChannel client;
+            try {
+                client = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+            workers.execute(() -> handle(client));
+        }
+    }
+
+    private void handle(SocketChannel client) {
+        try (client;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(client)))) {
+            DaemonProtocol.Request request = DaemonProtocol.readRequest(in);
+            PrintStream stdout = frames(out, DaemonProtocol.STDOUT);
+            PrintStream stderr = frames(out, DaemonProtocol.STDERR);
+            int exitCode = runJob(request, stdout, stderr);
+            stdout.flush();
+            stderr.flush();
+            synchronized (out) {
+                out.writeByte(DaemonProtocol.EXIT);
+                out.writeInt(exitCode);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Клиент отключился или прислал не то — на остальные задания это не влияет
+            System.err.println("⚠️ Задание демона прервано: " + e.getMessage());
+        }
+    }
+
+    private static PrintStream frames(DataOutputStream out, byte kind) {
+        return new PrintStream(new BufferedOutputStream(new DaemonProtocol.FrameOutputStream(out, kind)),
+                false, StandardCharsets.UTF_8);
+    }
+
+    private static int runJob(DaemonProtocol.Request request, PrintStream out, PrintStream err) {
+        String unsupported = unsupportedOption(request);
+        if (unsupported != null) {
+            err.println("Argument error: " + unsupported + " is not supported in daemon mode");
+            return 1;
+        }
+        ApplicationRunner runner =
+                new ApplicationRunner(new ArgsParser(), new DataFilterEngine(), new StatisticsPrinter());
+        return runner.run(request.args(), request.workingDir(), out, err);
+    }
+
+    // Опции, которым нужны stdin, stdout или консоль самого процесса; null — задание можно выполнить
+    private static String unsupportedOption(DaemonProtocol.Request request) {
+        FilterConfig config;
+        try {
+            config = ArgsParser.parse(request.args(), request.workingDir());
+        } catch (Exception e) {
+            // Ошибку разбора покажет сам запуск
+            return null;
+        }
+        if (config.follow()) {
+            return "--follow";
+        }
+        if (config.stdoutType() != null) {
+            return "--stdout";
+        }
+        if (config.progress()) {
+            return "--progress";
+        }
+        if (config.inputFiles().stream().anyMatch(StandardStreams::isStdin)) {
+            return "stdin input (-)";
+        }
+        return null;
+    }
+
+    // Файл сокета остаётся после аварийного завершения; если на нём кто-то слушает — это чужой демон
+    private static void removeStaleSocket(Path socketPath) throws IOException {
+        if (!Files.exists(socketPath)) {
+            return;
+        }
+        if (isListening(socketPath)) {
+            throw new IOException("Daemon is already listening on " + socketPath);
+        }
+        Files.delete(socketPath);
+    }
+
+    private static boolean isListening(Path socketPath) {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            return channel.isConnected();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            System.err.println("⚠️ Не удалось остановить демон: " + e.getMessage());
+        }
+    }
+
+    // Новые задания не принимаются, начатые дорабатывают
+    @Override
+    public synchronized void close() throws IOException {
+        if (!server.isOpen()) {
+            return;
+        }
+        server.close();
+        workers.shutdown();
+        try {
+            workers.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Files.deleteIfExists(socketPath);
+    }
+}
@@ -1,20 +1,48 @@
 package org.example.dto;
 
+import lombok.Builder;
+import org.example.model.DataType;
+
 import java.nio.file.Path;
 import java.util.List;
 
+@Builder(toBuilder = true)
 public record FilterConfig (
-        Path outputPath,      // Путь для результатов
-        String filePrefix,    // Префикс файлов
-        boolean appendMode,   // Режим добавления
-        boolean shortStats,   // Краткая статистика
-        boolean fullStats,    // Полная статистика
-        List<Path> inputFiles // Входные файлы
+        Path outputPath,       // Путь для результатов
+        String filePrefix,     // Префикс файлов
+        boolean appendMode,    // Режим добавления
+        boolean shortStats,    // Краткая статистика
+        boolean fullStats,     // Полная статистика
+        List<Path> inputFiles, // Входные файлы
+        int threads,           // Число потоков обработки (1 — последовательно)
+        boolean mappedInput,   // Чтение входных файлов через отображение в память
+        boolean pipelined,     // Конвейер: чтение, классификация и запись в отдельных потоках
+        int writeBufferSize,   // Размер буфера записи на тип в байтах (0 — по умолчанию)
+        boolean cumulativeStats, // Статистика по всему содержимому выходных файлов, а не по запуску
+        boolean bigIntegers,   // Целые вне диапазона long считать целыми, а не float
+        boolean distinctCounts, // Оценивать число различных значений каждого типа
+        int topStrings,        // Сколько самых частых строк показывать (0 — не отслеживать)
+        boolean metrics,       // Собирать метрики запуска и вывести их в stderr в JSON
+        boolean progress,      // Периодически выводить в stderr ход обработки
+        DataType stdoutType,   // Строки этого типа писать в stdout вместо файла (null — все в файлы)
+        int gzipLevel,         // Уровень сжатия выходных файлов в gzip, 1..9 (0 — без сжатия)
+        boolean follow,        // Следить за дописыванием входных файлов, пока процесс не остановят
+        boolean checkpoints,   // Периодически сохранять контрольную точку для продолжения после сбоя
+        boolean resume,        // Продолжить прерванный запуск с контрольной точки
+        List<DataType> patternTypes // Включённые типы из TypeRegistry (пусто — только числа и строки)
 ) {
     // Дефолтные значения
     public FilterConfig {
         outputPath = outputPath != null ? outputPath : Path.of("");
         filePrefix = filePrefix != null ? filePrefix : "";
         inputFiles = inputFiles != null ? inputFiles : List.of();
+        threads = Math.max(threads, 1);
+        patternTypes = patternTypes != null ? patternTypes : List.of();
+    }
+
+    // Последовательный режим с базовым набором опций
+    public FilterConfig(Path outputPath, String filePrefix, boolean appendMode,
+                        boolean shortStats, boolean fullStats, List<Path> inputFiles) {
+        this(outputPath, filePrefix, appendMode, shortStats, fullStats, inputFiles, 1, false, false, 0, false, false, false, 0, false, false, null, 0, false, false, false, List.of());
     }
-}
\ No newline at end of file
+}
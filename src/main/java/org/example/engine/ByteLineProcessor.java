@@ -0,0 +1,181 @@
+package org.example.engine;
+
+import org.example.model.DataType;
+import org.example.model.ParsedValue;
+import org.example.model.RunMetrics;
+import org.example.model.TotalStats;
+import org.example.util.AsciiCharSequence;
+import org.example.util.LineBuffer;
+import org.example.util.TypeDetector;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Разбор строк прямо по байтам (буфер в куче или отображённый в память файл): классификация,
+ * статистика и копирование исходных байт строки в буфер её типа. Не потокобезопасен —
+ * у каждого потока свой экземпляр.
+ */
+class ByteLineProcessor {
+
+    private final TypeDetector typeDetector;
+    private final ParsedValue parsed = new ParsedValue();
+    private final AsciiCharSequence view = new AsciiCharSequence();
+    private byte[] scratch = new byte[256];
+    // null — метрики выключены; без timed время строк не замеряется, остаются счётчики на блок
+    private final RunMetrics metrics;
+    private final boolean timed;
+    private long classifyNanos;
+    private long statsNanos;
+
+    ByteLineProcessor(TypeDetector typeDetector) {
+        this(typeDetector, null);
+    }
+
+    ByteLineProcessor(TypeDetector typeDetector, RunMetrics metrics) {
+        this.typeDetector = typeDetector;
+        this.metrics = metrics;
+        this.timed = metrics != null && metrics.isTimed();
+    }
+
+    // Ёмкость делится между типами, которые детектор может выдать; выключенным типам из реестра — минимум
+    LineBuffer[] newOutputs(int capacity) {
+        DataType[] types = DataType.values();
+        int enabled = 0;
+        for (DataType type : types) {
+            if (typeDetector.detects(type)) enabled++;
+        }
+        LineBuffer[] outputs = new LineBuffer[types.length];
+        for (DataType type : types) {
+            outputs[type.ordinal()] = new LineBuffer(typeDetector.detects(type) ? capacity / enabled : 0);
+        }
+        return outputs;
+    }
+
+    // Позиция сразу после последнего '\n' в [from, to) или -1, если перевода строки нет
+    static int lastLineEnd(ByteBuffer bytes, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (bytes.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Обрабатывает все строки в [from, to); последняя строка может быть без перевода строки.
+     * Разделители как у BufferedReader.readLine: '\n', '\r' и "\r\n".
+     */
+    void process(ByteBuffer bytes, int from, int to, TotalStats stats, LineBuffer[] outputs) {
+        long linesBefore = metrics != null ? stats.getTotalCount() : 0;
+        int lineStart = from;
+        int highBits = 0;
+        for (int i = from; i < to; i++) {
+            byte b = bytes.get(i);
+            if (b == '\n' || b == '\r') {
+                processLine(bytes, lineStart, i, highBits < 0, stats, outputs);
+                if (b == '\r' && i + 1 < to && bytes.get(i + 1) == '\n') {
+                    i++;
+                }
+                lineStart = i + 1;
+                highBits = 0;
+            } else {
+                highBits |= b;
+            }
+        }
+        if (lineStart < to) {
+            processLine(bytes, lineStart, to, highBits < 0, stats, outputs);
+        }
+        if (metrics != null) {
+            metrics.addProcessed(to - from, stats.getTotalCount() - linesBefore);
+        }
+        if (timed) {
+            metrics.addLineTimes(classifyNanos, statsNanos);
+            classifyNanos = 0;
+            statsNanos = 0;
+        }
+    }
+
+    private void processLine(ByteBuffer bytes, int from, int to, boolean nonAscii,
+                             TotalStats stats, LineBuffer[] outputs) {
+        int length = to - from;
+        CharSequence line = view.set(bytes, from, length);
+        long started = timed ? System.nanoTime() : 0;
+        DataType type;
+        if (!nonAscii) {
+            type = typeDetector.classify(line, 0, length, parsed);
+        } else if (isDigitsOnly(bytes, from, to)) {
+            // Цифры Unicode понимает Long.parseLong — только ради них строку приходится декодировать
+            type = typeDetector.classify(decode(bytes, from, length), parsed);
+        } else {
+            type = DataType.STRING;
+            parsed.setType(type);
+        }
+        long classified = timed ? System.nanoTime() : 0;
+
+        if (type == DataType.STRING && stats.needsStringText()) {
+            // Для оценки различных и самых частых значений нужен сам текст строки
+            stats.updateStat(parsed, nonAscii ? decode(bytes, from, length) : line);
+        } else if (type == DataType.STRING) {
+            // Длина считается по байтам, String для строк не создаётся
+            stats.updateStringStat(nonAscii ? utf16Length(bytes, from, to) : length);
+        } else {
+            stats.updateStat(parsed, line);
+        }
+        if (timed) {
+            classifyNanos += classified - started;
+            statsNanos += System.nanoTime() - classified;
+        }
+        outputs[type.ordinal()].appendLine(bytes, from, length);
+    }
+
+    private String decode(ByteBuffer bytes, int from, int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        bytes.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // Длина строки в символах UTF-16 по её байтам UTF-8: 4-байтные последовательности — суррогатная пара
+    static int utf16Length(ByteBuffer bytes, int from, int to) {
+        int length = 0;
+        for (int i = from; i < to; i++) {
+            int b = bytes.get(i) & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                length += (b & 0xF8) == 0xF0 ? 2 : 1;
+            }
+        }
+        return length;
+    }
+
+    // Строка из знака и десятичных цифр (в том числе не-ASCII) — только такая может оказаться INTEGER
+    private static boolean isDigitsOnly(ByteBuffer bytes, int from, int to) {
+        int i = from;
+        byte first = bytes.get(i);
+        if (first == '-' || first == '+') i++;
+        while (i < to) {
+            int b = bytes.get(i) & 0xFF;
+            int codePoint;
+            int size;
+            if (b < 0x80) {
+                codePoint = b;
+                size = 1;
+            } else if ((b & 0xE0) == 0xC0 && i + 1 < to) {
+                codePoint = ((b & 0x1F) << 6) | (bytes.get(i + 1) & 0x3F);
+                size = 2;
+            } else if ((b & 0xF0) == 0xE0 && i + 2 < to) {
+                codePoint = ((b & 0x0F) << 12) | ((bytes.get(i + 1) & 0x3F) << 6) | (bytes.get(i + 2) & 0x3F);
+                size = 3;
+            } else {
+                // 4-байтные символы в char не помещаются и цифрами для Long.parseLong не бывают
+                return false;
+            }
+            if (Character.digit(codePoint, 10) < 0) {
+                return false;
+            }
+            i += size;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.engine;
+
+import org.example.model.DataType;
+import org.example.model.RunMetrics;
+import org.example.model.TotalStats;
+import org.example.util.FileWriter;
+import org.example.util.LineBuffer;
+import org.example.util.TypeDetector;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Параллельная обработка одного большого файла: файл режется на диапазоны байт по границам строк,
+ * диапазоны классифицируются в ForkJoinPool, а статистика и выходные буферы склеиваются
+ * в исходном порядке строк. Диапазон читается в кучу или, в режиме --mmap, отображается в память.
+ */
+class ChunkedFileProcessor {
+
+    private static final int SCAN_BUFFER_SIZE = 8192;
+
+    private final TypeDetector typeDetector;
+    private final int chunkSize;
+    private final int threads;
+    private final boolean mappedInput;
+    private final RunMetrics metrics;
+
+    ChunkedFileProcessor(TypeDetector typeDetector, int chunkSize, int threads, boolean mappedInput,
+                         RunMetrics metrics) {
+        this.typeDetector = typeDetector;
+        this.chunkSize = chunkSize;
+        this.threads = threads;
+        this.mappedInput = mappedInput;
+        this.metrics = metrics;
+    }
+
+    void process(Path inputFile, FileWriter writer, TotalStats totalStats) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (FileChannel channel = FileChannel.open(inputFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long linesBefore = totalStats.getTotalCount();
+            // Окно ограничивает память: в работе одновременно не больше пары чанков на поток
+            long window = (long) chunkSize * threads * 2;
+            long start = 0;
+            while (start < size) {
+                long end = alignToLine(channel, Math.min(size, start + window), size);
+                List<ChunkResult> results = pool.invoke(new ChunkTask(this, channel, start, end, totalStats));
+                for (ChunkResult result : results) {
+                    totalStats.merge(result.stats());
+                    for (DataType type : DataType.values()) {
+                        LineBuffer out = result.outputs()[type.ordinal()];
+                        writer.write(type, out.array(), 0, out.size());
+                    }
+                }
+                start = end;
+            }
+            if (metrics != null) {
+                metrics.addFile(inputFile, size, totalStats.getTotalCount() - linesBefore);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Позиция сразу после первого '\n' в [pos - 1, limit) или limit, если перевода строки нет
+    private static long alignToLine(FileChannel channel, long pos, long limit) throws IOException {
+        if (pos >= limit) {
+            return limit;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long p = pos - 1;
+        while (p < limit) {
+            buffer.clear();
+            int n = channel.read(buffer, p);
+            if (n <= 0) {
+                return limit;
+            }
+            for (int i = 0; i < n && p + i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    return p + i + 1;
+                }
+            }
+            p += n;
+        }
+        return limit;
+    }
+
+    private ChunkResult processRange(FileChannel channel, long start, long end, TotalStats template)
+            throws IOException {
+        long length = end - start;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IOException("Line too long for chunked processing at offset " + start);
+        }
+        long started = metrics != null ? System.nanoTime() : 0;
+        ByteBuffer bytes;
+        if (mappedInput) {
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        } else {
+            bytes = ByteBuffer.allocate((int) length);
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, start + bytes.position()) < 0) {
+                    throw new IOException("Unexpected end of file at offset " + (start + bytes.position()));
+                }
+            }
+        }
+        if (metrics != null) {
+            metrics.addRead(System.nanoTime() - started);
+        }
+
+        TotalStats stats = template.emptyCopy();
+        ByteLineProcessor lineProcessor = new ByteLineProcessor(typeDetector, metrics);
+        LineBuffer[] outputs = lineProcessor.newOutputs((int) length);
+        lineProcessor.process(bytes, 0, (int) length, stats, outputs);
+        return new ChunkResult(stats, outputs);
+    }
+
+    private record ChunkResult(TotalStats stats, LineBuffer[] outputs) {
+    }
+
+    // Задачи не сериализуются: каналы и статистика живут только внутри одного запуска
+    private static class ChunkTask extends RecursiveTask<List<ChunkResult>> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient ChunkedFileProcessor processor;
+        private final transient FileChannel channel;
+        private final long start;
+        private final long end;
+        private final transient TotalStats template;
+
+        ChunkTask(ChunkedFileProcessor processor, FileChannel channel, long start, long end, TotalStats template) {
+            this.processor = processor;
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.template = template;
+        }
+
+        @Override
+        protected List<ChunkResult> compute() {
+            try {
+                if (end - start <= processor.chunkSize) {
+                    return List.of(processor.processRange(channel, start, end, template));
+                }
+                long mid = alignToLine(channel, start + (end - start) / 2, end);
+                if (mid >= end) {
+                    return List.of(processor.processRange(channel, start, end, template));
+                }
+                ChunkTask left = new ChunkTask(processor, channel, start, mid, template);
+                left.fork();
+                List<ChunkResult> right = new ChunkTask(processor, channel, mid, end, template).compute();
+                List<ChunkResult> results = new ArrayList<>(left.join());
+                results.addAll(right);
+                return results;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
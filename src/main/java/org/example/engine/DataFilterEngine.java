@@ -3,24 +3,62 @@ package org.example.engine;
 import lombok.Data;
 import org.example.dto.FilterConfig;
 import org.example.model.DataType;
+import org.example.model.RunMetrics;
 import org.example.model.TotalStats;
+import org.example.util.Checkpoint;
 import org.example.util.FileWriter;
+import org.example.util.ProgressReporter;
+import org.example.util.InputFiles;
+import org.example.util.PatternClassifier;
+import org.example.util.StatsSidecar;
 import org.example.util.TypeDetector;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 @Data
 public class DataFilterEngine {
 
+    // Размер блока чтения и окна отображения; файлы больше него в параллельном режиме режутся на чанки
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+    public static final long DEFAULT_POLL_INTERVAL_MILLIS = 500;
+    public static final long DEFAULT_CHECKPOINT_INTERVAL_MILLIS = 5000;
+
     TotalStats totalStats;
+    TotalStats cumulativeStats;
     TypeDetector typeDetector;
+    int chunkSize = DEFAULT_CHUNK_SIZE;
+    // Потоков распаковки большого многочленного gzip при последовательной обработке файлов
+    int inflateThreads = Runtime.getRuntime().availableProcessors();
+    // Метрики последнего запуска; null, если не заданы ни --metrics, ни --progress
+    RunMetrics metrics;
+    long progressIntervalMillis = ProgressReporter.DEFAULT_INTERVAL_MILLIS;
+    // --follow: пауза между опросами входных файлов и минимальный интервал контрольных точек
+    long pollIntervalMillis = DEFAULT_POLL_INTERVAL_MILLIS;
+    long checkpointIntervalMillis = DEFAULT_CHECKPOINT_INTERVAL_MILLIS;
+    // Служебный вывод запуска: у задания демона — потоки клиента (ApplicationRunner);
+    // null — System.out/System.err на момент запуска
+    PrintStream out;
+    PrintStream err;
+    // Запрос остановки режима --follow (из обработчика завершения JVM)
+    private volatile boolean stopRequested;
 
     public DataFilterEngine() {
         totalStats = new TotalStats();
+        cumulativeStats = new TotalStats();
         typeDetector = new TypeDetector();
     }
 
@@ -30,26 +68,356 @@ public class DataFilterEngine {
             throw new IOException();
         }
 
-        FileWriter writer = new FileWriter(config);
+        // Сочетания опций, несовместимые с контрольными точками, отклоняет ArgsParser
+        boolean checkpointed = !config.follow() && (config.checkpoints() || config.resume());
+
+        long started = System.nanoTime();
+        // Продолжение после прошлого запуска: режим дописывания и статистика — из контрольной точки
+        Checkpoint checkpoint = config.follow() || config.resume() ? Checkpoint.load(Checkpoint.path(config)) : null;
+        if (config.resume() && checkpoint == null) {
+            throw new IOException("No checkpoint to resume from: " + Checkpoint.path(config));
+        }
+        FilterConfig runConfig = checkpoint != null
+                ? config.toBuilder().appendMode(checkpoint.appendMode()).build()
+                : config;
+        // Для одного --progress хватает счётчиков на блок, время строк не замеряется
+        metrics = config.metrics() || config.progress() ? new RunMetrics(config.metrics()) : null;
+        FileWriter writer = new FileWriter(runConfig);
+        writer.setMetrics(metrics);
+        writer.setStreams(out(), err());
+        if (checkpoint != null) {
+            writer.resume(checkpoint.outputLengths());
+        }
+        StatsSidecar sidecar = new StatsSidecar(runConfig, err());
+        TotalStats previous = sidecar.load(writer);
+        TotalStats runStats = checkpoint != null ? checkpoint.stats() : new TotalStats();
+        enableSketches(runStats, config);
+        // Размер растущих файлов заранее не известен
+        ProgressReporter progress = config.progress()
+                ? ProgressReporter.start(metrics, config.follow() ? 0 : totalSize(config.inputFiles()),
+                        err(), progressIntervalMillis)
+                : null;
+        List<Checkpoint.InputPosition> positions = List.of();
+        try {
+            if (config.follow()) {
+                positions = follow(runConfig, checkpoint, writer, runStats);
+            } else if (checkpointed) {
+                processWithCheckpoints(runConfig, checkpoint, writer, runStats);
+            } else if (config.threads() > 1) {
+                processParallel(config, writer, runStats);
+            } else if (config.pipelined()) {
+                new PipelinedFileProcessor(detectorFor(config), chunkSize, metrics, inflateThreads(config))
+                        .process(config.inputFiles(), writer, runStats);
+            } else {
+                // Читаем файлы блоками байт и разбираем строки прямо в них
+                for (Path inputFile : config.inputFiles()) {
+                    processFile(inputFile, config, writer, runStats);
+                }
+            }
+        } finally {
+            if (progress != null) {
+                progress.close();
+            }
+            writer.close();
+            totalStats.merge(runStats);
+            if (metrics != null) {
+                metrics.finish(System.nanoTime() - started, runStats);
+            }
+        }
+        // Статистика по всему содержимому выходных файлов, с учётом прошлых запусков
+        cumulativeStats = sidecar.update(previous, runStats);
+        if (config.follow()) {
+            // Всё учтено в stats.bin: следующий запуск дописывает выходы и продолжает с этих смещений
+            new Checkpoint(true, positions, emptyOutputLengths(), new TotalStats()).save(Checkpoint.path(config));
+        } else if (checkpointed) {
+            // Запуск завершён и учтён в stats.bin — продолжать нечего
+            Files.deleteIfExists(Checkpoint.path(config));
+        }
+    }
+
+    // Смещение во входе однозначно, только когда файлы читаются последовательно и не из stdin
+    /**
+     * Последовательная обработка с контрольными точками (--checkpoint): после записанного блока,
+     * не чаще раза в checkpointIntervalMillis, выходы сбрасываются на диск и сохраняется точка
+     * со смещением в каждом входе. --resume продолжает с неё. Входы читаются потоково.
+     */
+    private void processWithCheckpoints(FilterConfig runConfig, Checkpoint checkpoint,
+                                        FileWriter writer, TotalStats runStats) throws IOException {
+        List<Path> inputFiles = runConfig.inputFiles();
+        CheckpointSaver saver = new CheckpointSaver(runConfig, writer, runStats,
+                checkpoint != null ? checkpoint.offsets(inputFiles) : new long[inputFiles.size()]);
+        StreamingFileProcessor processor =
+                new StreamingFileProcessor(detectorFor(runConfig), chunkSize, metrics, inflateThreads(runConfig));
+        for (int i = 0; i < inputFiles.size(); i++) {
+            saver.current = i;
+            processor.process(inputFiles.get(i), writer, runStats, saver.offsets[i], saver);
+        }
+    }
+
+    // Останавливает режим --follow; process() дообработает опрос, сохранит статистику и вернётся
+    public void stop() {
+        stopRequested = true;
+    }
 
-        // Читаем файлы построчно
-        for (Path inputFile : config.inputFiles()) {
-            try (BufferedReader reader = Files.newBufferedReader(inputFile)) {
-                String word;
-                while ((word = reader.readLine()) != null) {
-                    // Определяем тип
-                    DataType type = typeDetector.detectType(word);
-                    // Обновляем статистику
-                    totalStats.updateStat(type, word);
-                    // Пишем файлы
-                    writer.write(type, word);
+    /**
+     * Режим --follow: опрашивает входные файлы, пока не вызван {@link #stop()}. После новых строк,
+     * не чаще раза в checkpointIntervalMillis, выходы сбрасываются на диск и сохраняется
+     * контрольная точка, так что после аварийного завершения запуск продолжится с неё.
+     *
+     * @return смещения входов на момент остановки
+     */
+    private List<Checkpoint.InputPosition> follow(FilterConfig runConfig, Checkpoint checkpoint,
+                                                  FileWriter writer, TotalStats runStats) throws IOException {
+        Path checkpointPath = Checkpoint.path(runConfig);
+        try (FollowProcessor follower = new FollowProcessor(detectorFor(runConfig), chunkSize, metrics, err(),
+                runConfig.inputFiles(), checkpoint)) {
+            long lastCheckpoint = System.nanoTime();
+            boolean unsaved = false;
+            while (!stopRequested) {
+                boolean processed = follower.poll(writer, runStats);
+                if (processed) {
+                    // Дописанное сразу видно в выходных файлах
+                    writer.flush();
+                    unsaved = true;
+                }
+                if (unsaved && System.nanoTime() - lastCheckpoint >= checkpointIntervalMillis * 1_000_000) {
+                    new Checkpoint(runConfig.appendMode(), follower.positions(), writer.outputLengths(), runStats)
+                            .save(checkpointPath);
+                    lastCheckpoint = System.nanoTime();
+                    unsaved = false;
+                }
+                if (!processed) {
+                    sleep(pollIntervalMillis);
                 }
+            }
+            // Строки, дописанные до остановки, тоже учитываются
+            follower.poll(writer, runStats);
+            return follower.positions();
+        } finally {
+            stopRequested = false;
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while following input files", e);
+        }
+    }
+
+    private static long[] emptyOutputLengths() {
+        long[] lengths = new long[DataType.values().length];
+        Arrays.fill(lengths, -1);
+        return lengths;
+    }
+
+    // Общий размер входа для доли и оставшегося времени; 0 — неизвестен (stdin, gzip)
+    private static long totalSize(List<Path> inputFiles) {
+        long total = 0;
+        for (Path inputFile : inputFiles) {
+            if (!InputFiles.isPlainFile(inputFile)) {
+                return 0;
+            }
+            try {
+                total += Files.size(inputFile);
             } catch (IOException e) {
-                throw new RuntimeException(e);
+                // Ошибку покажет обычная обработка файла
+            }
+        }
+        return total;
+    }
+
+    // В параллельном режиме файлы и так обрабатываются одновременно, gzip распаковывается в своей задаче
+    private int inflateThreads(FilterConfig config) {
+        return config.threads() > 1 ? 1 : inflateThreads;
+    }
+
+    private PrintStream out() {
+        return out != null ? out : System.out;
+    }
+
+    private PrintStream err() {
+        return err != null ? err : System.err;
+    }
+
+    private static void enableSketches(TotalStats stats, FilterConfig config) {
+        if (config.distinctCounts()) {
+            stats.enableDistinctCounts();
+        }
+        if (config.topStrings() > 0) {
+            stats.enableTopStrings(config.topStrings());
+        }
+    }
+
+    // Классификация целых вне диапазона long включается только опцией, обычный путь не меняется
+    private TypeDetector detectorFor(FilterConfig config) {
+        if (!config.patternTypes().isEmpty()) {
+            return new TypeDetector(config.bigIntegers(), PatternClassifier.forTypes(config.patternTypes()));
+        }
+        return config.bigIntegers() ? new TypeDetector(true) : typeDetector;
+    }
+
+    private void processFile(Path inputFile, FilterConfig config, FileWriter writer, TotalStats stats) {
+        try {
+            // stdin и gzip не отображаются в память, их читает потоковый обработчик
+            if (config.mappedInput() && InputFiles.isPlainFile(inputFile)) {
+                new MappedFileProcessor(detectorFor(config), chunkSize, metrics).process(inputFile, writer, stats);
+            } else {
+                new StreamingFileProcessor(detectorFor(config), chunkSize, metrics, inflateThreads(config))
+                        .process(inputFile, writer, stats);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Каждый небольшой файл обрабатывается отдельной задачей со своей TotalStats и своими временными
+     * файлами по типам. Большие файлы, когда до них доходит очередь, режутся на чанки и обрабатываются
+     * всеми потоками сразу. Результаты забираются строго в порядке входных файлов: статистика
+     * сливается, а части дописываются в итоговые файлы, так что порядок строк тот же,
+     * что и при последовательной обработке.
+     */
+    private void processParallel(FilterConfig config, FileWriter writer, TotalStats runStats) throws IOException {
+        List<Path> inputFiles = config.inputFiles();
+        Path partsDir = Files.createTempDirectory(config.outputPath(), ".parts");
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(config.threads(), inputFiles.size()));
+        ChunkedFileProcessor chunkedProcessor =
+                new ChunkedFileProcessor(detectorFor(config), chunkSize, config.threads(), config.mappedInput(), metrics);
+        try {
+            List<Future<FilePart>> futures = new ArrayList<>(inputFiles.size());
+            for (int i = 0; i < inputFiles.size(); i++) {
+                Path inputFile = inputFiles.get(i);
+                if (isLarge(inputFile)) {
+                    futures.add(null);
+                    continue;
+                }
+                FilterConfig partConfig = config.toBuilder()
+                        .outputPath(partsDir)
+                        .filePrefix("part" + i + "_")
+                        .appendMode(false)
+                        .stdoutType(null)        // в stdout части попадут по порядку через appendFrom
+                        .build();
+                futures.add(executor.submit(() -> processPart(inputFile, partConfig)));
+            }
+
+            for (int i = 0; i < inputFiles.size(); i++) {
+                Future<FilePart> future = futures.get(i);
+                if (future == null) {
+                    chunkedProcessor.process(inputFiles.get(i), writer, runStats);
+                    continue;
+                }
+                FilePart part = await(future);
+                runStats.merge(part.stats());
+                for (DataType type : DataType.values()) {
+                    Path partFile = part.files().get(type.ordinal());
+                    if (partFile != null) {
+                        writer.appendFrom(type, partFile);
+                        Files.delete(partFile);
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            deleteRecursively(partsDir);
+        }
+    }
+
+    private boolean isLarge(Path inputFile) {
+        try {
+            return InputFiles.isPlainFile(inputFile) && Files.size(inputFile) > chunkSize;
+        } catch (IOException e) {
+            // Ошибку доступа покажет обычная обработка файла
+            return false;
+        }
+    }
+
+    private FilePart processPart(Path inputFile, FilterConfig partConfig) {
+        TotalStats stats = new TotalStats();
+        enableSketches(stats, partConfig);
+        FileWriter partWriter = new FileWriter(partConfig);
+        partWriter.setMetrics(metrics);
+        partWriter.setStreams(out(), err());
+        try {
+            processFile(inputFile, partConfig, partWriter, stats);
+        } finally {
+            partWriter.close();
+        }
+
+        List<Path> files = new ArrayList<>();
+        for (DataType type : DataType.values()) {
+            Path partFile = partWriter.buildFilePath(type);
+            files.add(Files.exists(partFile) ? partFile : null);
+        }
+        return new FilePart(stats, files);
+    }
+
+    private static FilePart await(Future<FilePart> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for worker", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    // Сохраняет контрольную точку после записанного блока, если с прошлой прошло достаточно времени
+    private final class CheckpointSaver implements StreamingFileProcessor.BlockListener {
+        private final FilterConfig runConfig;
+        private final FileWriter writer;
+        private final TotalStats runStats;
+        private final long[] offsets;
+        private int current;
+        private long lastSaved = System.nanoTime();
+
+        CheckpointSaver(FilterConfig runConfig, FileWriter writer, TotalStats runStats, long[] offsets) {
+            this.runConfig = runConfig;
+            this.writer = writer;
+            this.runStats = runStats;
+            this.offsets = offsets;
+        }
+
+        @Override
+        public void blockWritten(long consumed) throws IOException {
+            offsets[current] = consumed;
+            if (System.nanoTime() - lastSaved < checkpointIntervalMillis * 1_000_000) {
+                return;
             }
+            writer.flush();
+            List<Checkpoint.InputPosition> inputs = new ArrayList<>(offsets.length);
+            for (int i = 0; i < offsets.length; i++) {
+                inputs.add(new Checkpoint.InputPosition(runConfig.inputFiles().get(i), offsets[i]));
+            }
+            new Checkpoint(runConfig.appendMode(), inputs, writer.outputLengths(), runStats)
+                    .save(Checkpoint.path(runConfig));
+            lastSaved = System.nanoTime();
         }
-        writer.close();
     }
 
+    // Результат обработки одного файла: статистика и временные файлы по типам (индекс — ordinal)
+    private record FilePart(TotalStats stats, List<Path> files) {
+    }
 
 }
@@ -0,0 +1,196 @@
+package org.example.engine;
+
+import org.example.model.DataType;
+import org.example.model.RunMetrics;
+import org.example.model.TotalStats;
+import org.example.util.Checkpoint;
+import org.example.util.FileWriter;
+import org.example.util.InputFiles;
+import org.example.util.LineBuffer;
+import org.example.util.TypeDetector;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Режим --follow, как tail -f: входные файлы остаются открытыми, каждый опрос дочитывает
+ * дописанные байты и обрабатывает только целые строки (до последнего '\n'). Недописанная
+ * строка ждёт следующего опроса. Для каждого файла хранится смещение после последней
+ * обработанной строки — его и сохраняет контрольная точка.
+ * <p>
+ * Обрезанный файл читается заново с начала. Если под тем же именем появился другой файл
+ * (ротация журнала), старый дочитывается до конца и закрывается, а чтение продолжается с начала нового.
+ */
+class FollowProcessor implements AutoCloseable {
+
+    private final ByteLineProcessor lineProcessor;
+    private final PrintStream err;
+    private final List<FollowedFile> files = new ArrayList<>();
+    private ByteBuffer block;
+    private final LineBuffer[] outputs;
+
+    /**
+     * @param checkpoint откуда продолжать чтение или null — все файлы с начала
+     */
+    FollowProcessor(TypeDetector typeDetector, int blockSize, RunMetrics metrics, PrintStream err,
+                    List<Path> inputFiles, Checkpoint checkpoint) throws IOException {
+        this.lineProcessor = new ByteLineProcessor(typeDetector, metrics);
+        this.err = err;
+        this.block = ByteBuffer.allocate(blockSize);
+        this.outputs = lineProcessor.newOutputs(blockSize);
+        try {
+            for (Path inputFile : inputFiles) {
+                if (!InputFiles.isPlainFile(inputFile)) {
+                    throw new IllegalArgumentException("--follow needs regular uncompressed files, got: " + inputFile);
+                }
+                long offset = checkpoint != null ? checkpoint.offsetOf(inputFile) : 0;
+                FollowedFile file = new FollowedFile(inputFile);
+                files.add(file);
+                file.open();
+                file.offset = offset;
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Обрабатывает строки, дописанные во все файлы с прошлого опроса.
+     *
+     * @return были ли новые строки
+     */
+    boolean poll(FileWriter writer, TotalStats stats) throws IOException {
+        boolean processed = false;
+        for (FollowedFile file : files) {
+            processed |= poll(file, writer, stats);
+        }
+        return processed;
+    }
+
+    private boolean poll(FollowedFile file, FileWriter writer, TotalStats stats) throws IOException {
+        boolean processed = drain(file, writer, stats);
+        if (file.replaced()) {
+            // Старый файл уже дочитан, недописанная в нём строка так и останется недописанной
+            err.println("⚠️ Файл " + file.path + " пересоздан, чтение начато сначала");
+            file.open();
+            processed |= drain(file, writer, stats);
+        }
+        return processed;
+    }
+
+    // Дочитывает целые строки открытого канала файла
+    private boolean drain(FollowedFile file, FileWriter writer, TotalStats stats) throws IOException {
+        long size = file.channel.size();
+        if (size < file.offset) {
+            err.println("⚠️ Файл " + file.path + " стал короче, чтение начато сначала");
+            file.offset = 0;
+        }
+        boolean processed = false;
+        while (file.offset < size) {
+            block.clear();
+            int n = file.channel.read(block, file.offset);
+            if (n <= 0) {
+                break;
+            }
+            int end = ByteLineProcessor.lastLineEnd(block, 0, block.position());
+            if (end < 0) {
+                if (block.hasRemaining()) {
+                    // Последняя строка ещё дописывается
+                    break;
+                }
+                // Строка длиннее блока
+                block = StreamingFileProcessor.grow(block, file.path);
+                continue;
+            }
+            lineProcessor.process(block, 0, end, stats, outputs);
+            for (DataType type : DataType.values()) {
+                LineBuffer out = outputs[type.ordinal()];
+                writer.write(type, out.array(), 0, out.size());
+                out.clear();
+            }
+            file.offset += end;
+            processed = true;
+        }
+        return processed;
+    }
+
+    // Смещения после последней обработанной строки каждого файла
+    List<Checkpoint.InputPosition> positions() {
+        List<Checkpoint.InputPosition> positions = new ArrayList<>(files.size());
+        for (FollowedFile file : files) {
+            positions.add(new Checkpoint.InputPosition(file.path, file.offset));
+        }
+        return positions;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (FollowedFile file : files) {
+            if (file.channel == null) {
+                continue;
+            }
+            try {
+                file.channel.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static final class FollowedFile {
+        private final Path path;
+        private FileChannel channel;
+        // Идентификатор открытого файла (устройство и inode), null — платформа его не даёт
+        private Object fileKey;
+        private long offset;
+
+        FollowedFile(Path path) {
+            this.path = path;
+        }
+
+        // Открывает файл, который сейчас лежит по пути, и закрывает прежний
+        void open() throws IOException {
+            FileChannel opened = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+            } catch (IOException e) {
+                opened.close();
+                throw e;
+            }
+            FileChannel previous = channel;
+            channel = opened;
+            offset = 0;
+            if (previous != null) {
+                previous.close();
+            }
+        }
+
+        // Лежит ли по пути уже другой файл
+        boolean replaced() throws IOException {
+            if (fileKey == null) {
+                return false;
+            }
+            try {
+                Object current = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+                return current != null && !current.equals(fileKey);
+            } catch (NoSuchFileException e) {
+                // Старый файл уже переименовали, новый ещё не создан
+                return false;
+            }
+        }
+    }
+}
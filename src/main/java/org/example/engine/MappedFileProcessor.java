@@ -0,0 +1,79 @@
+package org.example.engine;
+
+import org.example.model.DataType;
+import org.example.model.RunMetrics;
+import org.example.model.TotalStats;
+import org.example.util.FileWriter;
+import org.example.util.LineBuffer;
+import org.example.util.TypeDetector;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Последовательное чтение файла через FileChannel.map: строки ищутся и классифицируются
+ * прямо в отображённых байтах, без копирования в char[] и без String на каждую строку.
+ * Файл отображается окнами; окно заканчивается на последнем переводе строки.
+ */
+class MappedFileProcessor {
+
+    private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE - 8;
+
+    private final ByteLineProcessor lineProcessor;
+    private final int windowSize;
+    private final RunMetrics metrics;
+
+    MappedFileProcessor(TypeDetector typeDetector, int windowSize, RunMetrics metrics) {
+        this.lineProcessor = new ByteLineProcessor(typeDetector, metrics);
+        this.windowSize = windowSize;
+        this.metrics = metrics;
+    }
+
+    void process(Path inputFile, FileWriter writer, TotalStats stats) throws IOException {
+        try (FileChannel channel = FileChannel.open(inputFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            LineBuffer[] outputs = lineProcessor.newOutputs((int) Math.min(size, windowSize));
+            int window = windowSize;
+            long linesBefore = stats.getTotalCount();
+            long readNanos = 0;
+            long start = 0;
+            while (start < size) {
+                int length = (int) Math.min(window, size - start);
+                // Чтением считается только отображение: страницы подгружаются уже при разборе строк
+                long started = metrics != null ? System.nanoTime() : 0;
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                if (metrics != null) {
+                    readNanos += System.nanoTime() - started;
+                }
+                int end = length;
+                if (start + length < size) {
+                    end = ByteLineProcessor.lastLineEnd(mapped, 0, length);
+                    if (end < 0) {
+                        // Строка длиннее окна — расширяем окно и отображаем заново
+                        if (window == MAX_WINDOW_SIZE) {
+                            throw new IOException("Line too long at offset " + start + " in " + inputFile);
+                        }
+                        window = (int) Math.min(MAX_WINDOW_SIZE, (long) window * 2);
+                        continue;
+                    }
+                }
+
+                lineProcessor.process(mapped, 0, end, stats, outputs);
+                for (DataType type : DataType.values()) {
+                    LineBuffer out = outputs[type.ordinal()];
+                    writer.write(type, out.array(), 0, out.size());
+                    out.clear();
+                }
+                start += end;
+                window = windowSize;
+            }
+            if (metrics != null) {
+                metrics.addRead(readNanos);
+                metrics.addFile(inputFile, size, stats.getTotalCount() - linesBefore);
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.engine;
+
+import org.example.model.DataType;
+import org.example.model.RunMetrics;
+import org.example.model.TotalStats;
+import org.example.util.FileWriter;
+import org.example.util.InputFiles;
+import org.example.util.LineBuffer;
+import org.example.util.TypeDetector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Конвейерная обработка: чтение, классификация со статистикой и запись каждого типа идут
+ * в отдельных стадиях, которые обмениваются блоками строк через ограниченные очереди.
+ * Чтение и запись перекрываются по времени, а полная очередь притормаживает предыдущую стадию.
+ * Классификация идёт в одном потоке в исходном порядке, поэтому результат совпадает
+ * с последовательным режимом.
+ */
+class PipelinedFileProcessor {
+
+    private static final int QUEUE_CAPACITY = 4;
+    private static final Block END_OF_INPUT = new Block(null, null, 0);
+    private static final LineBuffer END_OF_OUTPUT = new LineBuffer(0);
+
+    private final TypeDetector typeDetector;
+    private final int blockSize;
+    private final RunMetrics metrics;
+    private final int inflateThreads;
+
+    PipelinedFileProcessor(TypeDetector typeDetector, int blockSize, RunMetrics metrics, int inflateThreads) {
+        this.typeDetector = typeDetector;
+        this.blockSize = blockSize;
+        this.metrics = metrics;
+        this.inflateThreads = inflateThreads;
+    }
+
+    void process(List<Path> inputFiles, FileWriter writer, TotalStats stats) throws IOException {
+        DataType[] types = DataType.values();
+        BlockingQueue<Block> blocks = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        List<BlockingQueue<LineBuffer>> outputQueues = new ArrayList<>(types.length);
+        ExecutorService executor = Executors.newFixedThreadPool(1 + types.length);
+        try {
+            Future<?> reader = executor.submit(() -> {
+                try {
+                    readAll(inputFiles, blocks);
+                } finally {
+                    blocks.put(END_OF_INPUT);
+                }
+                return null;
+            });
+            List<Future<?>> writers = new ArrayList<>(types.length);
+            for (DataType type : types) {
+                BlockingQueue<LineBuffer> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+                outputQueues.add(queue);
+                writers.add(executor.submit(() -> writeAll(type, queue, writer)));
+            }
+
+            // Стадия классификации — в вызывающем потоке
+            ByteLineProcessor lineProcessor = new ByteLineProcessor(typeDetector, metrics);
+            Block block;
+            while ((block = blocks.take()) != END_OF_INPUT) {
+                LineBuffer[] outputs = lineProcessor.newOutputs(block.length());
+                long linesBefore = stats.getTotalCount();
+                lineProcessor.process(block.bytes(), 0, block.length(), stats, outputs);
+                if (metrics != null) {
+                    // Байты файла считает стадия чтения, строки — классификация
+                    metrics.addFile(block.file(), 0, stats.getTotalCount() - linesBefore);
+                }
+                for (DataType type : types) {
+                    if (outputs[type.ordinal()].size() > 0) {
+                        put(outputQueues.get(type.ordinal()), outputs[type.ordinal()], writers.get(type.ordinal()));
+                    }
+                }
+            }
+            await(reader);
+
+            for (DataType type : types) {
+                put(outputQueues.get(type.ordinal()), END_OF_OUTPUT, writers.get(type.ordinal()));
+            }
+            for (Future<?> future : writers) {
+                await(future);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while processing pipeline", e);
+        } finally {
+            // После ошибки стадии ещё работают: запись могла бы создать файл уже после выхода.
+            // Отменяем недописанное и дожидаемся остановки, не полагаясь только на прерывание
+            blocks.clear();
+            for (BlockingQueue<LineBuffer> queue : outputQueues) {
+                queue.clear();
+                queue.offer(END_OF_OUTPUT);
+            }
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Стадия чтения: блоки, выровненные по концу строки, файл за файлом
+    private void readAll(List<Path> inputFiles, BlockingQueue<Block> blocks) throws IOException, InterruptedException {
+        for (Path inputFile : inputFiles) {
+            try (ReadableByteChannel channel = InputFiles.open(inputFile, inflateThreads)) {
+                ByteBuffer block = ByteBuffer.allocate(blockSize);
+                long bytesRead = 0;
+                long readNanos = 0;
+                boolean eof = false;
+                while (!eof) {
+                    long started = metrics != null ? System.nanoTime() : 0;
+                    int n = channel.read(block);
+                    if (metrics != null) {
+                        readNanos += System.nanoTime() - started;
+                    }
+                    eof = n < 0;
+                    bytesRead += Math.max(n, 0);
+                    if (!eof && block.hasRemaining()) {
+                        continue;
+                    }
+                    int filled = block.position();
+                    int end = eof ? filled : ByteLineProcessor.lastLineEnd(block, 0, filled);
+                    if (end < 0) {
+                        block = StreamingFileProcessor.grow(block, inputFile);
+                        continue;
+                    }
+                    // Хвост без перевода строки уходит в следующий блок, текущий отдаём целиком
+                    ByteBuffer next = ByteBuffer.allocate(Math.max(blockSize, filled - end));
+                    next.put(block.array(), end, filled - end);
+                    if (end > 0) {
+                        blocks.put(new Block(inputFile, block, end));
+                    }
+                    block = next;
+                }
+                if (metrics != null) {
+                    metrics.addRead(readNanos);
+                    metrics.addFile(inputFile, bytesRead, 0);
+                }
+            }
+        }
+    }
+
+    // Стадия записи одного типа
+    private static Void writeAll(DataType type, BlockingQueue<LineBuffer> queue, FileWriter writer)
+            throws InterruptedException {
+        LineBuffer buffer;
+        while ((buffer = queue.take()) != END_OF_OUTPUT) {
+            writer.write(type, buffer.array(), 0, buffer.size());
+        }
+        return null;
+    }
+
+    // Кладёт в очередь, но не ждёт вечно, если стадия-потребитель упала
+    private static <T> void put(BlockingQueue<T> queue, T item, Future<?> consumer)
+            throws IOException, InterruptedException {
+        while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+            if (consumer.isDone()) {
+                await(consumer);
+                throw new IllegalStateException("Pipeline stage stopped unexpectedly");
+            }
+        }
+    }
+
+    private static void await(Future<?> future) throws IOException, InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private record Block(Path file, ByteBuffer bytes, int length) {
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.engine;
+
+import org.example.model.DataType;
+import org.example.model.RunMetrics;
+import org.example.model.TotalStats;
+import org.example.util.FileWriter;
+import org.example.util.LineBuffer;
+import org.example.util.InputFiles;
+import org.example.util.TypeDetector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Последовательное чтение файла блоками байт. Строки не декодируются в String и не кодируются
+ * обратно: исходные байты строки копируются в буфер её типа и пишутся в выходной файл как есть.
+ * Так же читаются stdin (входной файл "-") и распакованный gzip.
+ */
+class StreamingFileProcessor {
+
+    private static final int MAX_BLOCK_SIZE = Integer.MAX_VALUE - 8;
+
+    private final ByteLineProcessor lineProcessor;
+    private final int blockSize;
+    private final RunMetrics metrics;
+    private final int inflateThreads;
+
+    StreamingFileProcessor(TypeDetector typeDetector, int blockSize, RunMetrics metrics, int inflateThreads) {
+        this.lineProcessor = new ByteLineProcessor(typeDetector, metrics);
+        this.blockSize = blockSize;
+        this.metrics = metrics;
+        this.inflateThreads = inflateThreads;
+    }
+
+    void process(Path inputFile, FileWriter writer, TotalStats stats) throws IOException {
+        process(inputFile, writer, stats, 0, null);
+    }
+
+    /**
+     * @param skip     сколько байт входа уже обработано (продолжение с контрольной точки);
+     *                 у gzip это байты распакованных данных
+     * @param listener вызывается после записи каждого блока или null
+     */
+    void process(Path inputFile, FileWriter writer, TotalStats stats,
+                 long skip, BlockListener listener) throws IOException {
+        try (ReadableByteChannel channel = InputFiles.open(inputFile, inflateThreads)) {
+            skip(channel, skip, inputFile);
+            // Маленькому файлу — блок по размеру; размер stdin и распакованного gzip заранее не известен
+            long size = channel instanceof FileChannel file ? file.size() : blockSize;
+            ByteBuffer block = ByteBuffer.allocate((int) Math.min(blockSize, Math.max(size, 16)));
+            LineBuffer[] outputs = lineProcessor.newOutputs(block.capacity());
+            long linesBefore = stats.getTotalCount();
+            long bytesRead = 0;
+            long consumed = skip;
+            long readNanos = 0;
+            boolean eof = false;
+            while (!eof) {
+                long started = metrics != null ? System.nanoTime() : 0;
+                int n = channel.read(block);
+                if (metrics != null) {
+                    readNanos += System.nanoTime() - started;
+                }
+                eof = n < 0;
+                bytesRead += Math.max(n, 0);
+                if (!eof && block.hasRemaining()) {
+                    continue;
+                }
+
+                // Обрабатываем только целые строки, хвост переносим в начало блока
+                int filled = block.position();
+                int end = eof ? filled : ByteLineProcessor.lastLineEnd(block, 0, filled);
+                if (end < 0) {
+                    // Строка длиннее блока
+                    block = grow(block, inputFile);
+                    continue;
+                }
+                lineProcessor.process(block, 0, end, stats, outputs);
+                for (DataType type : DataType.values()) {
+                    LineBuffer out = outputs[type.ordinal()];
+                    writer.write(type, out.array(), 0, out.size());
+                    out.clear();
+                }
+                block.limit(filled).position(end);
+                block.compact();
+                consumed += end;
+                if (listener != null) {
+                    listener.blockWritten(consumed);
+                }
+            }
+            if (metrics != null) {
+                metrics.addRead(readNanos);
+                metrics.addFile(inputFile, bytesRead, stats.getTotalCount() - linesBefore);
+            }
+        }
+    }
+
+    private static void skip(ReadableByteChannel channel, long skip, Path inputFile) throws IOException {
+        if (skip == 0) {
+            return;
+        }
+        if (channel instanceof FileChannel file) {
+            if (file.size() < skip) {
+                throw new IOException("Input " + inputFile + " is shorter than in checkpoint");
+            }
+            file.position(skip);
+            return;
+        }
+        // Распакованный поток перематывается только чтением
+        ByteBuffer discard = ByteBuffer.allocate(64 * 1024);
+        long left = skip;
+        while (left > 0) {
+            discard.clear().limit((int) Math.min(discard.capacity(), left));
+            int n = channel.read(discard);
+            if (n < 0) {
+                throw new IOException("Input " + inputFile + " is shorter than in checkpoint");
+            }
+            left -= n;
+        }
+    }
+
+    static ByteBuffer grow(ByteBuffer block, Path inputFile) throws IOException {
+        if (block.capacity() == MAX_BLOCK_SIZE) {
+            throw new IOException("Line too long in " + inputFile);
+        }
+        ByteBuffer bigger = ByteBuffer.allocate((int) Math.min(MAX_BLOCK_SIZE, (long) block.capacity() * 2));
+        block.flip();
+        bigger.put(block);
+        return bigger;
+    }
+
+    // Уведомление о записанном блоке: для контрольных точек
+    interface BlockListener {
+        /**
+         * @param consumed сколько байт входа обработано и передано писателю
+         */
+        void blockWritten(long consumed) throws IOException;
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.model;
 
 public enum DataType {
-    FLOAT, INTEGER, STRING
+    FLOAT, INTEGER, STRING,
+    // Лексические типы из TypeRegistry, включаются опцией --types
+    DATE, UUID, HEX, IPV4
 }
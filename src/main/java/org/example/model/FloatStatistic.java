@@ -2,21 +2,68 @@ package org.example.model;
 
 import lombok.Data;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 @Data
-public class FloatStatistic extends TypeStatistic<Double> {
+public class FloatStatistic extends TypeStatistic {
 
     double min = Integer.MAX_VALUE;
     double max = Integer.MIN_VALUE;
     double sum = 0;
-    double middle;
+    // Распределение для квантилей
+    LogHistogram histogram = new LogHistogram();
 
-    @Override
-    protected void updateStat(Double d) {
+    protected void updateStat(double d) {
         super.typeCnt++;
         min = Math.min(min, d);
         max = Math.max(max, d);
         sum += d;
-        middle = sum / typeCnt;
+        histogram.record(d);
+        // + 0.0 сводит -0.0 к 0.0, doubleToLongBits — все NaN к одному
+        if (distinct != null) distinct.add(HyperLogLog.hash(Double.doubleToLongBits(d + 0.0)));
+    }
+
+    // Приближённый квантиль q (0..1), в пределах фактических min/max
+    public double getQuantile(double q) {
+        if (typeCnt == 0) return 0;
+        double value = histogram.quantile(q);
+        return value != value ? value : Math.min(Math.max(value, min), max);
+    }
+
+    // Среднее считается по запросу, а не на каждой строке
+    public double getMiddle() {
+        return typeCnt == 0 ? 0 : sum / typeCnt;
+    }
+
+    // Слияние статистики другого потока/файла
+    public void merge(FloatStatistic other) {
+        if (other.typeCnt == 0) return;
+        mergeDistinct(other);
+        typeCnt += other.typeCnt;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sum += other.sum;
+        histogram.merge(other.histogram);
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(typeCnt);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeDouble(sum);
+        histogram.writeTo(out);
+        writeDistinct(out);
+    }
+
+    void readFrom(DataInput in) throws IOException {
+        typeCnt = in.readLong();
+        min = in.readDouble();
+        max = in.readDouble();
+        sum = in.readDouble();
+        histogram.readFrom(in);
+        readDistinct(in);
     }
 
-}
\ No newline at end of file
+}
@@ -2,21 +2,157 @@ package org.example.model;
 
 import lombok.Data;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
+
 @Data
-public class IntegerStatistic extends TypeStatistic<Long> {
+public class IntegerStatistic extends TypeStatistic {
 
-    long min = Integer.MAX_VALUE;
-    long max = Integer.MIN_VALUE;
+    // Пока значений в диапазоне long нет, min > max (см. hasLongValues)
+    long min = Long.MAX_VALUE;
+    long max = Long.MIN_VALUE;
+    // Сумма = sumOverflow + sum: пока хватает long, BigInteger не создаётся
     long sum = 0;
-    double middle;
+    BigInteger sumOverflow;
+    // Экстремумы среди чисел вне диапазона long (режим --big-integers); null, пока таких нет
+    BigInteger bigMin;
+    BigInteger bigMax;
+    // Распределение для квантилей
+    LogHistogram histogram = new LogHistogram();
 
-    @Override
-    protected void updateStat(Long integer) {
+    protected void updateStat(long integer) {
         super.typeCnt++;
         min = Math.min(min, integer);
         max = Math.max(max, integer);
-        sum += integer;
-        middle = (double) sum / typeCnt;
+        addToSum(integer);
+        histogram.record(integer);
+        if (distinct != null) distinct.add(HyperLogLog.hash(integer));
+    }
+
+    protected void updateStat(BigInteger integer) {
+        super.typeCnt++;
+        bigMin = bigMin == null ? integer : bigMin.min(integer);
+        bigMax = bigMax == null ? integer : bigMax.max(integer);
+        spill(integer);
+        histogram.record(integer.doubleValue());
+        if (distinct != null) {
+            distinct.add(HyperLogLog.hash(integer.longValue() ^ HyperLogLog.hash(integer.shiftRight(64).longValue())));
+        }
+    }
+
+    private void addToSum(long value) {
+        // Проверка переполнения как в Math.addExact, но без исключения: на данных с большими
+        // числами переполнение частое, и бросать на нём исключение в разы медленнее
+        long result = sum + value;
+        if (((sum ^ result) & (value ^ result)) < 0) {
+            // Накопленное уходит в BigInteger, быстрый путь начинается заново
+            spill(BigInteger.valueOf(sum));
+            result = value;
+        }
+        sum = result;
+    }
+
+    private void spill(BigInteger value) {
+        sumOverflow = sumOverflow == null ? value : sumOverflow.add(value);
+    }
+
+    // Точная сумма без переполнения
+    public BigInteger getSum() {
+        BigInteger fast = BigInteger.valueOf(sum);
+        return sumOverflow == null ? fast : sumOverflow.add(fast);
+    }
+
+    // Минимум и максимум с учётом чисел вне диапазона long
+    public BigInteger getExactMin() {
+        if (bigMin == null) return BigInteger.valueOf(min);
+        return hasLongValues() ? bigMin.min(BigInteger.valueOf(min)) : bigMin;
+    }
+
+    public BigInteger getExactMax() {
+        if (bigMax == null) return BigInteger.valueOf(max);
+        return hasLongValues() ? bigMax.max(BigInteger.valueOf(max)) : bigMax;
+    }
+
+    // Были ли значения в диапазоне long: иначе min и max остаются начальными
+    private boolean hasLongValues() {
+        return min <= max;
+    }
+
+    // Приближённый квантиль q (0..1), в пределах фактических min/max
+    public double getQuantile(double q) {
+        if (typeCnt == 0) return 0;
+        double value = histogram.quantile(q);
+        return Math.min(Math.max(value, getExactMin().doubleValue()), getExactMax().doubleValue());
+    }
+
+    // Среднее считается по запросу, а не на каждой строке
+    public double getMiddle() {
+        if (typeCnt == 0) return 0;
+        return sumOverflow == null ? (double) sum / typeCnt : getSum().doubleValue() / typeCnt;
+    }
+
+    // Слияние статистики другого потока/файла
+    public void merge(IntegerStatistic other) {
+        if (other.typeCnt == 0) return;
+        mergeDistinct(other);
+        typeCnt += other.typeCnt;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        addToSum(other.sum);
+        if (other.sumOverflow != null) spill(other.sumOverflow);
+        if (other.bigMin != null) bigMin = bigMin == null ? other.bigMin : bigMin.min(other.bigMin);
+        if (other.bigMax != null) bigMax = bigMax == null ? other.bigMax : bigMax.max(other.bigMax);
+        histogram.merge(other.histogram);
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(typeCnt);
+        out.writeLong(min);
+        out.writeLong(max);
+        out.writeLong(sum);
+        writeBig(out, sumOverflow);
+        writeBig(out, bigMin);
+        writeBig(out, bigMax);
+        histogram.writeTo(out);
+        writeDistinct(out);
+    }
+
+    void readFrom(DataInput in) throws IOException {
+        typeCnt = in.readLong();
+        min = in.readLong();
+        max = in.readLong();
+        sum = in.readLong();
+        sumOverflow = readBig(in);
+        bigMin = readBig(in);
+        bigMax = readBig(in);
+        histogram.readFrom(in);
+        readDistinct(in);
+    }
+
+    // Длина в байтах и дополнительный код; длина 0 — значения нет
+    private static void writeBig(DataOutput out, BigInteger value) throws IOException {
+        if (value == null) {
+            out.writeInt(0);
+            return;
+        }
+        byte[] bytes = value.toByteArray();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static BigInteger readBig(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length == 0) {
+            return null;
+        }
+        if (length < 0 || length > 1 << 20) {
+            throw new IOException("Corrupted big integer length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new BigInteger(bytes);
     }
 
-}
\ No newline at end of file
+}
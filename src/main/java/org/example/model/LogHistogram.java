@@ -0,0 +1,172 @@
+package org.example.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Логарифмическая гистограмма в духе HDR: корзина значения — старшие биты его double
+ * (знак, порядок и SUB_BITS бит мантиссы), так что относительная ошибка квантилей не больше 2^-SUB_BITS.
+ * Запись — сдвиг и инкремент, память ограничена и выделяется страницами только под встреченные порядки,
+ * гистограммы складываются корзина к корзине.
+ */
+public class LogHistogram {
+
+    private static final int SUB_BITS = 7;
+    private static final int MANTISSA_SHIFT = 52 - SUB_BITS;
+    private static final int PAGE_SIZE = 1 << SUB_BITS;
+    // Страница на каждую пару (знак, порядок)
+    private static final int PAGES = 1 << 12;
+    private static final int NEGATIVE_PAGES = PAGES / 2;
+
+    private long[][] pages;
+    private long count;
+
+    public void record(double value) {
+        if (value != value) {
+            return; // NaN не упорядочен и в квантили не входит
+        }
+        int key = (int) (Double.doubleToRawLongBits(value) >>> MANTISSA_SHIFT);
+        if (pages == null) {
+            pages = new long[PAGES][];
+        }
+        long[] page = pages[key >>> SUB_BITS];
+        if (page == null) {
+            page = pages[key >>> SUB_BITS] = new long[PAGE_SIZE];
+        }
+        page[key & (PAGE_SIZE - 1)]++;
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Значение q-квантиля (0..1) — середина корзины, в которую он попадает; NaN для пустой гистограммы.
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.min(count - 1, Math.max(0, (long) Math.ceil(q * count) - 1));
+        long seen = 0;
+        // Отрицательные: у них большее значение ключа — больший модуль, идём от него
+        for (int p = PAGES - 1; p >= NEGATIVE_PAGES; p--) {
+            long[] page = pages[p];
+            if (page == null) continue;
+            for (int i = PAGE_SIZE - 1; i >= 0; i--) {
+                seen += page[i];
+                if (seen > rank) return bucketValue((p << SUB_BITS) | i);
+            }
+        }
+        for (int p = 0; p < NEGATIVE_PAGES; p++) {
+            long[] page = pages[p];
+            if (page == null) continue;
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                seen += page[i];
+                if (seen > rank) return bucketValue((p << SUB_BITS) | i);
+            }
+        }
+        throw new IllegalStateException("Histogram count is inconsistent: " + count);
+    }
+
+    private static double bucketValue(int key) {
+        long bits = (long) key << MANTISSA_SHIFT;
+        int exponent = (key >>> SUB_BITS) & 0x7FF;
+        if (exponent == 0) {
+            return Math.copySign(0.0, Double.longBitsToDouble(bits)); // ноль и субнормальные
+        }
+        if (exponent == 0x7FF) {
+            return Double.longBitsToDouble(bits); // бесконечность
+        }
+        return Double.longBitsToDouble(bits | (1L << (MANTISSA_SHIFT - 1)));
+    }
+
+    public void merge(LogHistogram other) {
+        if (other.count == 0) return;
+        if (pages == null) {
+            pages = new long[PAGES][];
+        }
+        for (int p = 0; p < PAGES; p++) {
+            long[] source = other.pages[p];
+            if (source == null) continue;
+            if (pages[p] == null) {
+                pages[p] = source.clone();
+            } else {
+                for (int i = 0; i < PAGE_SIZE; i++) {
+                    pages[p][i] += source[i];
+                }
+            }
+        }
+        count += other.count;
+    }
+
+    // Только непустые корзины: число корзин, затем пары (ключ, счётчик)
+    void writeTo(DataOutput out) throws IOException {
+        int buckets = 0;
+        if (pages != null) {
+            for (long[] page : pages) {
+                if (page == null) continue;
+                for (long c : page) {
+                    if (c != 0) buckets++;
+                }
+            }
+        }
+        out.writeInt(buckets);
+        if (buckets == 0) return;
+        for (int p = 0; p < PAGES; p++) {
+            long[] page = pages[p];
+            if (page == null) continue;
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                if (page[i] != 0) {
+                    out.writeInt((p << SUB_BITS) | i);
+                    out.writeLong(page[i]);
+                }
+            }
+        }
+    }
+
+    void readFrom(DataInput in) throws IOException {
+        pages = null;
+        count = 0;
+        int buckets = in.readInt();
+        if (buckets < 0 || buckets > PAGES * PAGE_SIZE) {
+            throw new IOException("Corrupted histogram size: " + buckets);
+        }
+        if (buckets == 0) return;
+        pages = new long[PAGES][];
+        for (int b = 0; b < buckets; b++) {
+            int key = in.readInt();
+            long c = in.readLong();
+            if (key < 0 || key >= PAGES * PAGE_SIZE || c <= 0) {
+                throw new IOException("Corrupted histogram bucket: " + key);
+            }
+            long[] page = pages[key >>> SUB_BITS];
+            if (page == null) {
+                page = pages[key >>> SUB_BITS] = new long[PAGE_SIZE];
+            }
+            page[key & (PAGE_SIZE - 1)] += c;
+            count += c;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LogHistogram other) || count != other.count) return false;
+        for (int p = 0; p < PAGES && count != 0; p++) {
+            long[] a = pages[p];
+            long[] b = other.pages[p];
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                if ((a == null ? 0 : a[i]) != (b == null ? 0 : b[i])) return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(count);
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.model;
+
+import lombok.Data;
+
+import java.math.BigInteger;
+
+/**
+ * Результат классификации строки вместе с уже разобранным числом.
+ * Один экземпляр переиспользуется для всех строк, поэтому на строку ничего не аллоцируется.
+ */
+@Data
+public class ParsedValue {
+
+    private DataType type;
+    private long longValue;     // заполнено для INTEGER
+    private BigInteger bigValue; // INTEGER вне диапазона long (режим --big-integers), иначе null
+    private double doubleValue; // заполнено для FLOAT
+
+}
@@ -0,0 +1,68 @@
+package org.example.model;
+
+import lombok.Data;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Comparator;
+
+/**
+ * Статистика лексического типа из {@link TypeRegistry}: количество и наименьшее/наибольшее
+ * значение в порядке типа (даты — хронологически, hex и IPv4 — численно).
+ */
+@Data
+public class PatternStatistic extends TypeStatistic {
+
+    private final DataType type;
+    private final Comparator<CharSequence> order;
+    // null, пока значений нет
+    String min;
+    String max;
+
+    public PatternStatistic(DataType type) {
+        this.type = type;
+        this.order = TypeRegistry.of(type).order();
+    }
+
+    // Строка создаётся, только когда значение становится новым min или max
+    protected void updateStat(CharSequence s) {
+        typeCnt++;
+        if (min == null || order.compare(s, min) < 0) {
+            min = s.toString();
+        }
+        if (max == null || order.compare(s, max) > 0) {
+            max = s.toString();
+        }
+        if (distinct != null) distinct.add(HyperLogLog.hash(s));
+    }
+
+    // Слияние статистики другого потока/файла
+    public void merge(PatternStatistic other) {
+        if (other.typeCnt == 0) return;
+        mergeDistinct(other);
+        typeCnt += other.typeCnt;
+        if (min == null || order.compare(other.min, min) < 0) {
+            min = other.min;
+        }
+        if (max == null || order.compare(other.max, max) > 0) {
+            max = other.max;
+        }
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(typeCnt);
+        if (typeCnt > 0) {
+            out.writeUTF(min);
+            out.writeUTF(max);
+        }
+        writeDistinct(out);
+    }
+
+    void readFrom(DataInput in) throws IOException {
+        typeCnt = in.readLong();
+        min = typeCnt > 0 ? in.readUTF() : null;
+        max = typeCnt > 0 ? in.readUTF() : null;
+        readDistinct(in);
+    }
+}
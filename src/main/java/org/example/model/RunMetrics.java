@@ -0,0 +1,220 @@
+package org.example.model;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики и таймеры одного запуска (--metrics): объём по файлам и типам, время по стадиям,
+ * открытия файлов и сбросы буферов записи. Методы синхронизированы: обработчики копят значения
+ * у себя и добавляют их сюда крупными порциями (на блок, чанк или сброс буфера), а не на строку.
+ * Счётчики прогресса (--progress) — LongAdder без блокировок: их читает фоновый поток отчёта.
+ */
+public class RunMetrics {
+
+    // Замерять время каждой строки; для одного прогресса достаточно счётчиков на блок
+    private final boolean timed;
+    private final LongAdder bytesProcessed = new LongAdder();
+    private final LongAdder linesProcessed = new LongAdder();
+
+    private final Map<Path, long[]> files = new LinkedHashMap<>(); // путь -> {bytes, lines}
+    private final long[] linesByType = new long[DataType.values().length];
+    private long readNanos;
+    private long classifyNanos;
+    private long statsNanos;
+    private long writeNanos;
+    private long bytesWritten;
+    private long fileOpens;
+    private long flushes;
+    private long wallNanos;
+
+    public RunMetrics() {
+        this(true);
+    }
+
+    public RunMetrics(boolean timed) {
+        this.timed = timed;
+    }
+
+    public boolean isTimed() {
+        return timed;
+    }
+
+    // Обработанный блок входных данных; вызывается из рабочих потоков без синхронизации
+    public void addProcessed(long bytes, long lines) {
+        bytesProcessed.add(bytes);
+        linesProcessed.add(lines);
+    }
+
+    public long getBytesProcessed() {
+        return bytesProcessed.sum();
+    }
+
+    public long getLinesProcessed() {
+        return linesProcessed.sum();
+    }
+
+    // Байты и строки входного файла; вызовы для одного файла складываются
+    public synchronized void addFile(Path file, long bytes, long lines) {
+        long[] counters = files.computeIfAbsent(file, f -> new long[2]);
+        counters[0] += bytes;
+        counters[1] += lines;
+    }
+
+    public synchronized void addRead(long nanos) {
+        readNanos += nanos;
+    }
+
+    public synchronized void addLineTimes(long classify, long stats) {
+        classifyNanos += classify;
+        statsNanos += stats;
+    }
+
+    // Один сброс буфера записи в файл; только здесь считаются записанные байты
+    public synchronized void addWrite(long nanos, long bytes) {
+        writeNanos += nanos;
+        bytesWritten += bytes;
+        flushes++;
+    }
+
+    // Копирование готовой части в выходной файл: её байты уже учтены при сбросе в часть
+    public synchronized void addCopy(long nanos) {
+        writeNanos += nanos;
+        flushes++;
+    }
+
+    public synchronized void addFileOpen() {
+        fileOpens++;
+    }
+
+    public synchronized void finish(long wallNanos, TotalStats stats) {
+        this.wallNanos = wallNanos;
+        for (DataType type : DataType.values()) {
+            linesByType[type.ordinal()] = stats.getCount(type);
+        }
+    }
+
+    public synchronized long getLinesRead() {
+        long lines = 0;
+        for (long[] counters : files.values()) {
+            lines += counters[1];
+        }
+        return lines;
+    }
+
+    public synchronized long getBytesRead() {
+        long bytes = 0;
+        for (long[] counters : files.values()) {
+            bytes += counters[0];
+        }
+        return bytes;
+    }
+
+    public synchronized long getLines(DataType type) {
+        return linesByType[type.ordinal()];
+    }
+
+    public synchronized long getReadNanos() {
+        return readNanos;
+    }
+
+    public synchronized long getClassifyNanos() {
+        return classifyNanos;
+    }
+
+    public synchronized long getStatsNanos() {
+        return statsNanos;
+    }
+
+    public synchronized long getWriteNanos() {
+        return writeNanos;
+    }
+
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public synchronized long getFileOpens() {
+        return fileOpens;
+    }
+
+    public synchronized long getFlushes() {
+        return flushes;
+    }
+
+    public synchronized long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * JSON-документ со всеми значениями. Время стадий суммируется по потокам,
+     * поэтому в параллельных режимах может превышать общее время.
+     */
+    public synchronized String toJson() {
+        StringBuilder json = new StringBuilder(256);
+        double seconds = wallNanos / 1e9;
+        long lines = getLinesRead();
+        long bytes = getBytesRead();
+        json.append("{\n");
+        json.append("  \"wallMillis\": ").append(millis(wallNanos)).append(",\n");
+        json.append("  \"linesRead\": ").append(lines).append(",\n");
+        json.append("  \"bytesRead\": ").append(bytes).append(",\n");
+        json.append("  \"linesPerSecond\": ").append(seconds > 0 ? Math.round(lines / seconds) : 0).append(",\n");
+        json.append("  \"bytesPerSecond\": ").append(seconds > 0 ? Math.round(bytes / seconds) : 0).append(",\n");
+        json.append("  \"linesByType\": {");
+        DataType[] types = DataType.values();
+        for (int i = 0; i < types.length; i++) {
+            // Типы из реестра — только если встретились (--types)
+            if (TypeRegistry.of(types[i]) != null && linesByType[i] == 0) continue;
+            json.append(i == 0 ? "" : ", ").append('"').append(types[i]).append("\": ").append(linesByType[i]);
+        }
+        json.append("},\n");
+        json.append("  \"stageMillis\": {\"read\": ").append(millis(readNanos))
+                .append(", \"classify\": ").append(millis(classifyNanos))
+                .append(", \"stats\": ").append(millis(statsNanos))
+                .append(", \"write\": ").append(millis(writeNanos)).append("},\n");
+        json.append("  \"bytesWritten\": ").append(bytesWritten).append(",\n");
+        json.append("  \"fileOpens\": ").append(fileOpens).append(",\n");
+        json.append("  \"flushes\": ").append(flushes).append(",\n");
+        json.append("  \"files\": [");
+        boolean first = true;
+        for (Map.Entry<Path, long[]> entry : files.entrySet()) {
+            json.append(first ? "\n" : ",\n");
+            first = false;
+            json.append("    {\"path\": ").append(quote(entry.getKey().toString()))
+                    .append(", \"bytes\": ").append(entry.getValue()[0])
+                    .append(", \"lines\": ").append(entry.getValue()[1]).append('}');
+        }
+        json.append(first ? "]\n" : "\n  ]\n");
+        json.append('}');
+        return json.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    private static String quote(String s) {
+        StringBuilder quoted = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,229 @@
+package org.example.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Самые частые строки по алгоритму Space-Saving: не больше capacity счётчиков, при переполнении
+ * вытесняется самый редкий, а новая строка наследует его счёт как погрешность.
+ * Для каждой строки count - error <= истинная частота <= count; любая строка с частотой больше
+ * n / capacity гарантированно есть в сводке. Сводки сливаются по схеме mergeable summaries.
+ */
+public class SpaceSaving {
+
+    // Запас счётчиков на каждую запрашиваемую позицию: чем больше, тем меньше погрешность
+    private static final int CAPACITY_PER_ITEM = 10;
+    private static final int MIN_CAPACITY = 100;
+
+    private final int k;
+    private final int capacity;
+    private final Map<String, Counter> counters;
+    // Min-heap по count: корень — кандидат на вытеснение
+    private Counter[] heap;
+    private int size;
+
+    public SpaceSaving(int k) {
+        this.k = k;
+        this.capacity = Math.max(MIN_CAPACITY, k * CAPACITY_PER_ITEM);
+        this.counters = new HashMap<>();
+        this.heap = new Counter[Math.min(capacity, 16)];
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public void add(String value) {
+        Counter counter = counters.get(value);
+        if (counter != null) {
+            counter.count++;
+            siftDown(counter.index);
+        } else if (size < capacity) {
+            insert(new Counter(value, 1, 0));
+        } else {
+            Counter min = heap[0];
+            counters.remove(min.value);
+            min.value = value;
+            min.error = min.count;
+            min.count++;
+            counters.put(value, min);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Первые k строк по убыванию count.
+     */
+    public List<Entry> top() {
+        List<Counter> sorted = new ArrayList<>(counters.values());
+        sorted.sort(Comparator.comparingLong((Counter c) -> c.count).reversed()
+                .thenComparing(c -> c.value));
+        List<Entry> result = new ArrayList<>(Math.min(k, sorted.size()));
+        for (int i = 0; i < Math.min(k, sorted.size()); i++) {
+            Counter c = sorted.get(i);
+            result.add(new Entry(c.value, c.count, c.error));
+        }
+        return result;
+    }
+
+    public void merge(SpaceSaving other) {
+        // Строка, отсутствующая в заполненной сводке, могла встретиться там до min раз
+        long missingHere = size == capacity ? heap[0].count : 0;
+        long missingThere = other.size == other.capacity ? other.heap[0].count : 0;
+
+        Map<String, Counter> merged = new HashMap<>();
+        for (Counter c : counters.values()) {
+            merged.put(c.value, new Counter(c.value, c.count + missingThere, c.error + missingThere));
+        }
+        for (Counter c : other.counters.values()) {
+            Counter existing = merged.get(c.value);
+            if (existing == null) {
+                merged.put(c.value, new Counter(c.value, c.count + missingHere, c.error + missingHere));
+            } else {
+                existing.count += c.count - missingThere;
+                existing.error += c.error - missingThere;
+            }
+        }
+
+        List<Counter> kept = new ArrayList<>(merged.values());
+        kept.sort(Comparator.comparingLong((Counter c) -> c.count).reversed());
+        clear();
+        for (int i = 0; i < Math.min(capacity, kept.size()); i++) {
+            insert(kept.get(i));
+        }
+    }
+
+    public SpaceSaving copy() {
+        SpaceSaving copy = new SpaceSaving(k);
+        for (int i = 0; i < size; i++) {
+            Counter c = heap[i];
+            copy.insert(new Counter(c.value, c.count, c.error));
+        }
+        return copy;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(k);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            byte[] bytes = heap[i].value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.writeLong(heap[i].count);
+            out.writeLong(heap[i].error);
+        }
+    }
+
+    static SpaceSaving readFrom(DataInput in) throws IOException {
+        int k = in.readInt();
+        if (k <= 0) {
+            throw new IOException("Corrupted top-K size: " + k);
+        }
+        SpaceSaving summary = new SpaceSaving(k);
+        int size = in.readInt();
+        if (size < 0 || size > summary.capacity) {
+            throw new IOException("Corrupted top-K entry count: " + size);
+        }
+        for (int i = 0; i < size; i++) {
+            int length = in.readInt();
+            if (length < 0) {
+                throw new IOException("Corrupted top-K value length: " + length);
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            summary.insert(new Counter(new String(bytes, StandardCharsets.UTF_8), in.readLong(), in.readLong()));
+        }
+        return summary;
+    }
+
+    private void insert(Counter counter) {
+        if (size == heap.length) {
+            Counter[] grown = new Counter[Math.min(capacity, heap.length * 2)];
+            System.arraycopy(heap, 0, grown, 0, size);
+            heap = grown;
+        }
+        counter.index = size;
+        heap[size++] = counter;
+        counters.put(counter.value, counter);
+        siftUp(counter.index);
+    }
+
+    private void clear() {
+        counters.clear();
+        for (int i = 0; i < size; i++) {
+            heap[i] = null;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        Counter c = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent].count <= c.count) break;
+            place(heap[parent], i);
+            i = parent;
+        }
+        place(c, i);
+    }
+
+    private void siftDown(int i) {
+        Counter c = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) child++;
+            if (c.count <= heap[child].count) break;
+            place(heap[child], i);
+            i = child;
+        }
+        place(c, i);
+    }
+
+    private void place(Counter c, int i) {
+        heap[i] = c;
+        c.index = i;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SpaceSaving other) || k != other.k || size != other.size) return false;
+        for (Counter c : counters.values()) {
+            Counter d = other.counters.get(c.value);
+            if (d == null || d.count != c.count || d.error != c.error) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * k + size;
+    }
+
+    /**
+     * Строка и оценка её частоты: истинное значение в [count - error, count].
+     */
+    public record Entry(String value, long count, long error) {
+    }
+
+    private static final class Counter {
+        String value;
+        long count;
+        long error;
+        int index;
+
+        Counter(String value, long count, long error) {
+            this.value = value;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
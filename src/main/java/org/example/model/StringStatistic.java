@@ -2,16 +2,83 @@ package org.example.model;
 
 import lombok.Data;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 @Data
-public class StringStatistic extends TypeStatistic<String> {
+public class StringStatistic extends TypeStatistic {
 
     int minLen = Integer.MAX_VALUE;
     int maxLen = Integer.MIN_VALUE;
+    // Гистограмма длин строк
+    LogHistogram lengthHistogram = new LogHistogram();
+    // Самые частые строки; null — не отслеживаются (или отслежены не все строки)
+    SpaceSaving topStrings;
+
+    protected void updateStat(CharSequence s) {
+        updateStat(s.length());
+        if (distinct != null) distinct.add(HyperLogLog.hash(s));
+        if (topStrings != null) topStrings.add(s.toString());
+    }
 
-    @Override
-    protected void updateStat(String s) {
+    public void enableTopStrings(int k) {
+        if (topStrings == null && typeCnt == 0) {
+            topStrings = new SpaceSaving(k);
+        }
+    }
+
+    protected void updateStat(int length) {
         super.typeCnt++;
-        minLen = Math.min(minLen, s.length());
-        maxLen = Math.max(maxLen, s.length());
+        minLen = Math.min(minLen, length);
+        maxLen = Math.max(maxLen, length);
+        lengthHistogram.record(length);
+    }
+
+    // Приближённый квантиль длины строки q (0..1)
+    public double getLengthQuantile(double q) {
+        if (typeCnt == 0) return 0;
+        return Math.min(Math.max(lengthHistogram.quantile(q), minLen), maxLen);
+    }
+
+    // Слияние статистики другого потока/файла
+    public void merge(StringStatistic other) {
+        if (other.typeCnt == 0) return;
+        mergeDistinct(other);
+        // Как и для оценки различных: строки, не попавшие в сводку, делают её неполной
+        if (typeCnt == 0) {
+            topStrings = other.topStrings == null ? null : other.topStrings.copy();
+        } else if (topStrings != null) {
+            if (other.topStrings == null) {
+                topStrings = null;
+            } else {
+                topStrings.merge(other.topStrings);
+            }
+        }
+        typeCnt += other.typeCnt;
+        minLen = Math.min(minLen, other.minLen);
+        maxLen = Math.max(maxLen, other.maxLen);
+        lengthHistogram.merge(other.lengthHistogram);
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(typeCnt);
+        out.writeInt(minLen);
+        out.writeInt(maxLen);
+        lengthHistogram.writeTo(out);
+        writeDistinct(out);
+        out.writeBoolean(topStrings != null);
+        if (topStrings != null) {
+            topStrings.writeTo(out);
+        }
+    }
+
+    void readFrom(DataInput in) throws IOException {
+        typeCnt = in.readLong();
+        minLen = in.readInt();
+        maxLen = in.readInt();
+        lengthHistogram.readFrom(in);
+        readDistinct(in);
+        topStrings = in.readBoolean() ? SpaceSaving.readFrom(in) : null;
     }
 }
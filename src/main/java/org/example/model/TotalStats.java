@@ -2,28 +2,166 @@ package org.example.model;
 
 import lombok.Data;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.math.BigInteger;
+import java.util.EnumMap;
+import java.util.Map;
 
 @Data
 public class TotalStats {
     private StringStatistic  stringStatistic;
     private FloatStatistic   floatStatistic;
     private IntegerStatistic integerStatistic;
+    // Типы из TypeRegistry; пока тип не включён (--types), его статистика пуста
+    private final Map<DataType, PatternStatistic> patternStatistics = new EnumMap<>(DataType.class);
 
     public TotalStats() {
         stringStatistic  = new StringStatistic();
         floatStatistic   = new FloatStatistic();
         integerStatistic = new IntegerStatistic();
+        for (TypeRegistry.Definition definition : TypeRegistry.definitions()) {
+            patternStatistics.put(definition.type(), new PatternStatistic(definition.type()));
+        }
+    }
+
+    public PatternStatistic getPatternStatistic(DataType type) {
+        return patternStatistics.get(type);
     }
 
     public void updateStat(DataType type, String o) {
         switch (type) {
             case STRING  -> stringStatistic.updateStat(o);
             case FLOAT   -> floatStatistic.updateStat(Double.parseDouble(o));
-            case INTEGER -> integerStatistic.updateStat(Long.parseLong(o));
+            case INTEGER -> updateIntegerStat(o);
+            default      -> patternStatistics.get(type).updateStat(o);
+        }
+    }
+
+    // Число уже разобрано классификатором, повторного парсинга нет
+    public void updateStat(ParsedValue value, CharSequence o) {
+        switch (value.getType()) {
+            case STRING  -> stringStatistic.updateStat(o);
+            case FLOAT   -> floatStatistic.updateStat(value.getDoubleValue());
+            case INTEGER -> {
+                if (value.getBigValue() == null) {
+                    integerStatistic.updateStat(value.getLongValue());
+                } else {
+                    integerStatistic.updateStat(value.getBigValue());
+                }
+            }
+            default      -> patternStatistics.get(value.getType()).updateStat(o);
+        }
+    }
+
+    private void updateIntegerStat(String o) {
+        // До 18 цифр число гарантированно помещается в long
+        if (o.length() <= 18) {
+            integerStatistic.updateStat(Long.parseLong(o));
+            return;
+        }
+        BigInteger value = new BigInteger(o);
+        if (value.bitLength() < Long.SIZE) {
+            integerStatistic.updateStat(value.longValue());
+        } else {
+            integerStatistic.updateStat(value);
+        }
+    }
+
+    // Всего учтённых строк всех типов
+    public long getTotalCount() {
+        long total = stringStatistic.getTypeCnt() + floatStatistic.getTypeCnt() + integerStatistic.getTypeCnt();
+        for (PatternStatistic statistic : patternStatistics.values()) {
+            total += statistic.getTypeCnt();
+        }
+        return total;
+    }
+
+    public long getCount(DataType type) {
+        return statistic(type).getTypeCnt();
+    }
+
+    private TypeStatistic statistic(DataType type) {
+        return switch (type) {
+            case STRING  -> stringStatistic;
+            case FLOAT   -> floatStatistic;
+            case INTEGER -> integerStatistic;
+            default      -> patternStatistics.get(type);
+        };
+    }
+
+    // Оценка числа различных значений по каждому типу (HyperLogLog); включается до обработки
+    public void enableDistinctCounts() {
+        stringStatistic.enableDistinctCount();
+        floatStatistic.enableDistinctCount();
+        integerStatistic.enableDistinctCount();
+        patternStatistics.values().forEach(PatternStatistic::enableDistinctCount);
+    }
+
+    // Сводка k самых частых строк (Space-Saving); включается до обработки
+    public void enableTopStrings(int k) {
+        stringStatistic.enableTopStrings(k);
+    }
+
+    // Нужен ли текст строки: без него учитывается только длина
+    public boolean needsStringText() {
+        return stringStatistic.getDistinct() != null || stringStatistic.getTopStrings() != null;
+    }
+
+    // Пустая статистика с теми же включёнными оценками — для отдельного обработчика
+    public TotalStats emptyCopy() {
+        TotalStats copy = new TotalStats();
+        if (stringStatistic.getDistinct() != null) {
+            copy.enableDistinctCounts();
+        }
+        if (stringStatistic.getTopStrings() != null) {
+            copy.enableTopStrings(stringStatistic.getTopStrings().getK());
+        }
+        return copy;
+    }
+
+    // Строка, для которой известна только длина в символах (байтовый путь без String)
+    public void updateStringStat(int length) {
+        stringStatistic.updateStat(length);
+    }
+
+    // Добавляет статистику, собранную отдельным обработчиком
+    public void merge(TotalStats other) {
+        for (DataType type : DataType.values()) {
+            merge(type, other);
+        }
+    }
+
+    // Добавляет статистику одного типа (см. StatsSidecar: типы перезаписываются по отдельности)
+    public void merge(DataType type, TotalStats other) {
+        switch (type) {
+            case STRING  -> stringStatistic.merge(other.stringStatistic);
+            case FLOAT   -> floatStatistic.merge(other.floatStatistic);
+            case INTEGER -> integerStatistic.merge(other.integerStatistic);
+            default      -> patternStatistics.get(type).merge(other.patternStatistics.get(type));
+        }
+    }
+
+    // Компактное двоичное представление для файла статистики (см. StatsSidecar)
+    public void writeTo(DataOutput out) throws IOException {
+        stringStatistic.writeTo(out);
+        floatStatistic.writeTo(out);
+        integerStatistic.writeTo(out);
+        for (PatternStatistic statistic : patternStatistics.values()) {
+            statistic.writeTo(out);
+        }
+    }
 
-            default -> throw new IllegalStateException("Unexpected value: " + type);
+    public static TotalStats readFrom(DataInput in) throws IOException {
+        TotalStats stats = new TotalStats();
+        stats.stringStatistic.readFrom(in);
+        stats.floatStatistic.readFrom(in);
+        stats.integerStatistic.readFrom(in);
+        for (PatternStatistic statistic : stats.patternStatistics.values()) {
+            statistic.readFrom(in);
         }
+        return stats;
     }
 
 }
@@ -0,0 +1,120 @@
+package org.example.model;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Реестр лексических типов (--types). Каждый тип объявляет имя — оно же имя выходного файла
+ * и значение опций --types и --stdout, — шаблон всей строки и порядок значений для min/max.
+ * Шаблоны включённых типов компилируются в один автомат ({@link org.example.util.PatternClassifier}),
+ * так что строка проверяется против любого числа типов за один проход.
+ * <p>
+ * Новый тип — константа в DataType и определение здесь. Числа распознаются раньше шаблонов,
+ * поэтому шаблон не может перехватить INTEGER или FLOAT.
+ */
+public final class TypeRegistry {
+
+    /**
+     * @param name    имя для опций и файла name.txt
+     * @param title   заголовок в полной статистике
+     * @param pattern шаблон всей строки: литералы, \d, классы [...], группы, |, ?, *, +, {n}, {n,m}
+     * @param order   порядок значений для min/max
+     */
+    public record Definition(DataType type, String name, String title, String pattern,
+                             Comparator<CharSequence> order) {
+    }
+
+    private static final String HEX_DIGIT = "[0-9a-fA-F]";
+    private static final String OCTET = "(25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)";
+
+    private static final List<Definition> DEFINITIONS = List.of(
+            // ISO 8601, только дата: лексически, 31 февраля тоже подходит
+            new Definition(DataType.DATE, "dates", "Dates",
+                    "\\d{4}-(0[1-9]|1[0-2])-(0[1-9]|[12]\\d|3[01])", CharSequence::compare),
+            new Definition(DataType.UUID, "uuids", "UUIDs",
+                    HEX_DIGIT + "{8}-" + HEX_DIGIT + "{4}-" + HEX_DIGIT + "{4}-" + HEX_DIGIT + "{4}-"
+                            + HEX_DIGIT + "{12}", TypeRegistry::compareIgnoreCase),
+            new Definition(DataType.HEX, "hex", "Hex",
+                    "0[xX]" + HEX_DIGIT + "+", TypeRegistry::compareHex),
+            new Definition(DataType.IPV4, "ipv4", "IPv4",
+                    OCTET + "(\\." + OCTET + "){3}", TypeRegistry::compareIpv4)
+    );
+
+    private TypeRegistry() {
+    }
+
+    public static List<Definition> definitions() {
+        return DEFINITIONS;
+    }
+
+    // Определение типа или null для INTEGER, FLOAT и STRING
+    public static Definition of(DataType type) {
+        for (Definition definition : DEFINITIONS) {
+            if (definition.type() == type) {
+                return definition;
+            }
+        }
+        return null;
+    }
+
+    // Определение по имени из опций или null
+    public static Definition byName(String name) {
+        for (Definition definition : DEFINITIONS) {
+            if (definition.name().equals(name)) {
+                return definition;
+            }
+        }
+        return null;
+    }
+
+    // Сравнение ASCII без учёта регистра, без создания строк
+    static int compareIgnoreCase(CharSequence a, CharSequence b) {
+        return compareIgnoreCase(a, 0, b, 0);
+    }
+
+    private static int compareIgnoreCase(CharSequence a, int aFrom, CharSequence b, int bFrom) {
+        int length = Math.min(a.length() - aFrom, b.length() - bFrom);
+        for (int i = 0; i < length; i++) {
+            int diff = Character.toLowerCase(a.charAt(aFrom + i)) - Character.toLowerCase(b.charAt(bFrom + i));
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return (a.length() - aFrom) - (b.length() - bFrom);
+    }
+
+    // Числовой порядок 0x...: без ведущих нулей длиннее — значит больше
+    static int compareHex(CharSequence a, CharSequence b) {
+        int aFrom = significantHexStart(a);
+        int bFrom = significantHexStart(b);
+        int byLength = Integer.compare(a.length() - aFrom, b.length() - bFrom);
+        return byLength != 0 ? byLength : compareIgnoreCase(a, aFrom, b, bFrom);
+    }
+
+    private static int significantHexStart(CharSequence s) {
+        int i = 2;
+        while (i < s.length() && s.charAt(i) == '0') {
+            i++;
+        }
+        return i;
+    }
+
+    static int compareIpv4(CharSequence a, CharSequence b) {
+        return Long.compare(ipv4Value(a), ipv4Value(b));
+    }
+
+    private static long ipv4Value(CharSequence s) {
+        long value = 0;
+        int octet = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                value = value << 8 | octet;
+                octet = 0;
+            } else {
+                octet = octet * 10 + (c - '0');
+            }
+        }
+        return value << 8 | octet;
+    }
+}
@@ -2,11 +2,58 @@ package org.example.model;
 
 import lombok.Data;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Общая часть статистик по типу. Обновление объявлено в наследниках
+ * со своими примитивными аргументами, чтобы значения не упаковывались.
+ */
 @Data
-public abstract class TypeStatistic<T> {
+public abstract class TypeStatistic {
+
+    // 64 бита: на входах в миллиарды строк int переполняется
+    protected long typeCnt;
+    // Оценка числа различных значений; null — подсчёт выключен или не покрывает все значения
+    protected HyperLogLog distinct;
+
+    public void enableDistinctCount() {
+        if (distinct == null && typeCnt == 0) {
+            distinct = new HyperLogLog();
+        }
+    }
+
+    // -1, если оценки нет
+    public long getDistinctCount() {
+        return distinct == null ? -1 : distinct.estimate();
+    }
+
+    /**
+     * Вызывается из merge наследника до увеличения typeCnt. Если у одной из сторон есть значения,
+     * не попавшие в оценку, оценка для объединения неизвестна.
+     */
+    protected void mergeDistinct(TypeStatistic other) {
+        if (typeCnt == 0) {
+            distinct = other.distinct == null ? null : other.distinct.copy();
+        } else if (distinct != null) {
+            if (other.distinct == null) {
+                distinct = null;
+            } else {
+                distinct.merge(other.distinct);
+            }
+        }
+    }
 
-    protected int typeCnt;
+    void writeDistinct(DataOutput out) throws IOException {
+        out.writeBoolean(distinct != null);
+        if (distinct != null) {
+            distinct.writeTo(out);
+        }
+    }
 
-    protected abstract void updateStat(T word);
+    void readDistinct(DataInput in) throws IOException {
+        distinct = in.readBoolean() ? HyperLogLog.readFrom(in) : null;
+    }
 
 }
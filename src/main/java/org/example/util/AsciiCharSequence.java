@@ -0,0 +1,45 @@
+package org.example.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Переиспользуемое представление диапазона байт как CharSequence (байт = символ).
+ * Позволяет классифицировать строку прямо по байтам (в куче или в отображённом файле),
+ * не создавая String. Корректно только для ASCII: строки с байтами >= 0x80 декодируются отдельно.
+ */
+public class AsciiCharSequence implements CharSequence {
+
+    private ByteBuffer bytes;
+    private int offset;
+    private int length;
+
+    public AsciiCharSequence set(ByteBuffer bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        byte[] copy = new byte[end - start];
+        bytes.get(offset + start, copy);
+        return new String(copy, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length).toString();
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.util;
+
+import org.example.dto.FilterConfig;
+import org.example.model.DataType;
+import org.example.model.TotalStats;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Контрольная точка долгого запуска (--follow, --checkpoint): <prefix>checkpoint.bin рядом
+ * с выходными файлами. Хранит, докуда прочитан каждый вход, какой длины были выходные файлы
+ * после сброса буферов и статистику запуска к этому моменту. Продолжение обрезает выходы
+ * до сохранённых длин и читает входы с сохранённых смещений, поэтому строки не теряются
+ * и не дублируются.
+ *
+ * @param appendMode     режим, в котором продолжать: для выходов, не открытых до точки, и для stats.bin
+ * @param inputs         смещения входов по порядку; в --follow вход, которого нет в списке, читается с начала
+ * @param outputLengths  длина файла каждого типа (индекс — ordinal), -1 — файл не открывался
+ * @param stats          статистика запуска, ещё не учтённая в stats.bin
+ */
+public record Checkpoint(boolean appendMode, List<InputPosition> inputs, long[] outputLengths, TotalStats stats) {
+
+    private static final int MAGIC = 0x43484b50; // "CHKP"
+    private static final int VERSION = 2;
+
+    public Checkpoint {
+        inputs = List.copyOf(inputs);
+    }
+
+    public static Path path(FilterConfig config) {
+        return config.outputPath().resolve(config.filePrefix() + "checkpoint.bin");
+    }
+
+    // Смещение, с которого продолжать чтение входа
+    public long offsetOf(Path inputFile) {
+        for (InputPosition input : inputs) {
+            if (input.file().equals(inputFile)) {
+                return input.offset();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Смещения по порядку входов для --resume: продолжать можно только тот же список файлов.
+     *
+     * @throws IllegalArgumentException если входы не совпадают с сохранёнными
+     */
+    public long[] offsets(List<Path> inputFiles) {
+        if (inputs.size() != inputFiles.size()) {
+            throw new IllegalArgumentException("Input files differ from checkpoint");
+        }
+        long[] offsets = new long[inputs.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            if (!inputs.get(i).file().equals(inputFiles.get(i))) {
+                throw new IllegalArgumentException("Input files differ from checkpoint: expected "
+                        + inputs.get(i).file() + ", got " + inputFiles.get(i));
+            }
+            offsets[i] = inputs.get(i).offset();
+        }
+        return offsets;
+    }
+
+    /**
+     * @return сохранённая точка или null, если её нет
+     * @throws IOException если файл есть, но прочитать его нельзя: молча начинать заново опаснее
+     */
+    public static Checkpoint load(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unknown checkpoint format: " + path);
+            }
+            boolean appendMode = in.readBoolean();
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Corrupted checkpoint input count: " + count);
+            }
+            List<InputPosition> inputs = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                inputs.add(new InputPosition(Path.of(in.readUTF()), in.readLong()));
+            }
+            // Число типов записано явно: типов из реестра может стать больше, недостающие — не открывались
+            int types = in.readInt();
+            if (types < 0 || types > DataType.values().length) {
+                throw new IOException("Corrupted checkpoint type count: " + types);
+            }
+            long[] outputLengths = new long[DataType.values().length];
+            Arrays.fill(outputLengths, -1);
+            for (int i = 0; i < types; i++) {
+                outputLengths[i] = in.readLong();
+            }
+            return new Checkpoint(appendMode, inputs, outputLengths, TotalStats.readFrom(in));
+        }
+    }
+
+    // Запись во временный файл и атомарная замена, как у stats.bin
+    public void save(Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeBoolean(appendMode);
+            out.writeInt(inputs.size());
+            for (InputPosition input : inputs) {
+                out.writeUTF(input.file().toString());
+                out.writeLong(input.offset());
+            }
+            out.writeInt(outputLengths.length);
+            for (long length : outputLengths) {
+                out.writeLong(length);
+            }
+            stats.writeTo(out);
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public record InputPosition(Path file, long offset) {
+    }
+}
@@ -2,33 +2,104 @@ package org.example.util;
 
 import org.example.dto.FilterConfig;
 import org.example.model.DataType;
+import org.example.model.RunMetrics;
+import org.example.model.TypeRegistry;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Запись строк в файлы по типам. У каждого типа свой FileChannel и большой direct ByteBuffer:
+ * строки копируются (или кодируются) в буфер, а в файл уходят одним write на заполнение буфера.
+ * С --gzip заполненный буфер сжимается отдельным членом gzip в пуле потоков ({@link GzipBlockCompressor}).
+ */
 public class FileWriter implements AutoCloseable {
 
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+    public static final int DEFAULT_GZIP_LEVEL = 6;
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
     private final FilterConfig config;
-    private final Map<DataType, BufferedWriter> writers;
+    private final Map<DataType, TypeSink> sinks;
+    // null — метрики не собираются
+    private RunMetrics metrics;
+    // Служебные сообщения; у задания демона — потоки его клиента
+    private PrintStream out = System.out;
+    private PrintStream err = System.err;
+    // Общий для всех типов пул сжатия; создаётся при первом сжатом файле
+    private ExecutorService compressionPool;
+    // Типы, продолжаемые после контрольной точки: их файлы дописываются даже без -a
+    private final boolean[] resumed = new boolean[DataType.values().length];
 
     public FileWriter(FilterConfig config) {
         this.config = config;
-        writers = new EnumMap<>(DataType.class);
+        sinks = new EnumMap<>(DataType.class);
+    }
+
+    public void setMetrics(RunMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setStreams(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
     }
 
     public void write(DataType type, String value) {
         try {
-            var writer = getOrCreate(type);
-            writer.write(value);
-            writer.newLine();
+            var sink = getOrCreate(type);
+            sink.putLine(value);
+
+        } catch (IOException e) {
+            handleWriteError(type, e);
+        }
+    }
 
+    /**
+     * Пакетная запись: один поиск файла на весь набор строк, дальше только копирование в буфер.
+     */
+    public void writeAll(DataType type, List<? extends CharSequence> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        try {
+            var sink = getOrCreate(type);
+            for (CharSequence value : values) {
+                sink.putLine(value);
+            }
+        } catch (IOException e) {
+            handleWriteError(type, e);
+        }
+    }
+
+    /**
+     * Записывает уже готовые байты строк (с разделителями) в файл типа, минуя кодирование.
+     */
+    public void write(DataType type, byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        try {
+            getOrCreate(type).put(bytes, offset, length);
         } catch (IOException e) {
             handleWriteError(type, e);
         }
@@ -37,9 +108,8 @@ public class FileWriter implements AutoCloseable {
     public void writeWithRetry(DataType type, String value, int attempts) {
         while (attempts-- > 0) {
             try {
-                var writer = getOrCreate(type);
-                writer.write(value);
-                writer.newLine();
+                var sink = getOrCreate(type);
+                sink.putLine(value);
                 return;
 
             } catch (IOException e) {
@@ -48,58 +118,278 @@ public class FileWriter implements AutoCloseable {
         }
     }
 
-    private BufferedWriter getOrCreate(DataType type) throws IOException {
-        if (writers.containsKey(type)) {
-            return writers.get(type);
+    /**
+     * Дописывает в выходной файл типа готовое содержимое другого файла (например, части,
+     * собранной отдельным потоком). Байты копируются каналом, без декодирования в строки.
+     */
+    public void appendFrom(DataType type, Path source) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size == 0) {
+                return;
+            }
+            // Сначала сбрасываем то, что уже лежит в буфере, чтобы не нарушить порядок строк
+            TypeSink sink = getOrCreate(type);
+            sink.flush();
+            long started = metrics != null ? System.nanoTime() : 0;
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, sink.channel);
+            }
+            if (metrics != null) {
+                metrics.addCopy(System.nanoTime() - started);
+            }
+        }
+    }
+
+    // Сбрасывает буферы всех типов, дожидаясь и сжатых блоков
+    public synchronized void flush() throws IOException {
+        for (TypeSink sink : sinks.values()) {
+            sink.flush();
+        }
+    }
+
+    /**
+     * Длины выходных файлов после {@link #flush()} для контрольной точки (индекс — ordinal типа);
+     * -1 — файл этим писателем не открывался.
+     */
+    public synchronized long[] outputLengths() throws IOException {
+        long[] lengths = new long[DataType.values().length];
+        for (DataType type : DataType.values()) {
+            TypeSink sink = sinks.get(type);
+            lengths[type.ordinal()] = sink != null && sink.path != null ? Files.size(sink.path) : -1;
+        }
+        return lengths;
+    }
+
+    /**
+     * Продолжение после контрольной точки: файлы, открытые до неё, обрезаются до сохранённой длины
+     * (строки после точки будут обработаны заново) и дальше дописываются. Вызывается до записи.
+     */
+    public synchronized void resume(long[] outputLengths) throws IOException {
+        for (DataType type : DataType.values()) {
+            long length = outputLengths[type.ordinal()];
+            if (length < 0) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(buildFilePath(type), StandardOpenOption.WRITE)) {
+                if (channel.size() < length) {
+                    throw new IOException("Output file " + buildFilePath(type) + " is shorter than in checkpoint");
+                }
+                channel.truncate(length);
+            }
+            resumed[type.ordinal()] = true;
+        }
+    }
+
+    // Синхронизировано: запись разных типов могут вести разные потоки
+    private synchronized TypeSink getOrCreate(DataType type) throws IOException {
+        TypeSink existing = sinks.get(type);
+        if (existing != null) {
+            return existing;
         }
 
         //Coздание writer'а
-        Path typePath = buildFilePath(type);
-        var appendModeOption = config.appendMode()
-                ? StandardOpenOption.APPEND
-                : StandardOpenOption.TRUNCATE_EXISTING;
-        BufferedWriter typeWriter = Files.newBufferedWriter(typePath, StandardOpenOption.CREATE, appendModeOption);
+        int bufferSize = config.writeBufferSize() > 0 ? config.writeBufferSize() : DEFAULT_BUFFER_SIZE;
+        TypeSink typeSink;
+        if (type == config.stdoutType()) {
+            typeSink = new TypeSink(null, StandardStreams.stdout(), bufferSize, metrics, null);
+        } else {
+            Path typePath = buildFilePath(type);
+            var appendModeOption = config.appendMode() || resumed[type.ordinal()]
+                    ? StandardOpenOption.APPEND
+                    : StandardOpenOption.TRUNCATE_EXISTING;
+            FileChannel channel = FileChannel.open(typePath,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, appendModeOption);
+            GzipBlockCompressor compressor = config.gzipLevel() > 0
+                    ? new GzipBlockCompressor(compressionPool(), config.gzipLevel(), 2 * compressionThreads())
+                    : null;
+            typeSink = new TypeSink(typePath, channel, bufferSize, metrics, compressor);
+            if (metrics != null) {
+                metrics.addFileOpen();
+            }
+        }
 
+        // Когда stdout занят строками, служебный вывод уходит в stderr
+        (config.stdoutType() != null ? err : out).println(typeSink);
+        sinks.put(type, typeSink);
+        return typeSink;
+    }
 
-        System.out.println(typeWriter.toString());
-        writers.put(type, typeWriter);
-        return typeWriter;
+    private ExecutorService compressionPool() {
+        if (compressionPool == null) {
+            compressionPool = Executors.newFixedThreadPool(compressionThreads(), r -> {
+                Thread thread = new Thread(r, "gzip-deflate");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return compressionPool;
+    }
+
+    // В параллельном режиме писателей несколько, ядра делятся между ними
+    private int compressionThreads() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / config.threads());
     }
 
     private void handleWriteError(DataType type, IOException e) {
-        System.err.println("🚨 Ошибка записи в файл для " + type + ": " + e.getMessage());
+        err.println("🚨 Ошибка записи в файл для " + type + ": " + e.getMessage());
 
         // Закрываем проблемный writer
         closeWriter(type);
     }
 
-    private void closeWriter(DataType type) {
+    private synchronized void closeWriter(DataType type) {
+        TypeSink sink = sinks.remove(type);
+        if (sink == null) {
+            return;
+        }
         try {
-            BufferedWriter writer = writers.get(type);
-            if (writer != null) {
-                writer.close();
-            }
+            sink.close();
         } catch (IOException e) {
-            System.err.println("⚠️ Ошибка при закрытии файла " + type + ": " + e.getMessage());
-        } finally {
-            writers.remove(type);
+            err.println("⚠️ Ошибка при закрытии файла " + type + ": " + e.getMessage());
         }
     }
 
-    private Path buildFilePath(DataType type) {
+    public Path buildFilePath(DataType type) {
         String fileName = switch (type) {
             case INTEGER -> "integers.txt";
             case FLOAT -> "floats.txt";
             case STRING -> "strings.txt";
+            default -> TypeRegistry.of(type).name() + ".txt";
         };
-        return config.outputPath().resolve(config.filePrefix() + fileName);
+        String extension = config.gzipLevel() > 0 ? ".gz" : "";
+        return config.outputPath().resolve(config.filePrefix() + fileName + extension);
     }
 
-    public void close() {
-        List<DataType> types = new ArrayList<>(writers.keySet());
+    public synchronized void close() {
+        List<DataType> types = new ArrayList<>(sinks.keySet());
 
         for (DataType type : types) {
             closeWriter(type);
         }
+        if (compressionPool != null) {
+            compressionPool.shutdown();
+            compressionPool = null;
+        }
+    }
+
+    /**
+     * Файл (или stdout) одного типа: канал и direct-буфер. Пишется одним потоком за раз.
+     * Для сжатого файла буфер в куче: его содержимое уходит в задачу сжатия.
+     */
+    private static final class TypeSink {
+
+        private final Path path; // null — stdout
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+        // Одиночный суррогат во входе не должен ронять весь файл типа — пишем '?', как и String.getBytes
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final RunMetrics metrics;
+        // null — без сжатия
+        private final GzipBlockCompressor compressor;
+
+        TypeSink(Path path, WritableByteChannel channel, int bufferSize, RunMetrics metrics,
+                 GzipBlockCompressor compressor) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = compressor != null ? ByteBuffer.allocate(bufferSize) : ByteBuffer.allocateDirect(bufferSize);
+            this.metrics = metrics;
+            this.compressor = compressor;
+        }
+
+        void putLine(CharSequence value) throws IOException {
+            CharBuffer chars = CharBuffer.wrap(value);
+            encoder.reset();
+            while (true) {
+                CoderResult result = encoder.encode(chars, buffer, true);
+                if (result.isOverflow()) {
+                    flushBuffer();
+                } else {
+                    break;
+                }
+            }
+            while (encoder.flush(buffer).isOverflow()) {
+                flushBuffer();
+            }
+            put(LINE_SEPARATOR, 0, LINE_SEPARATOR.length);
+        }
+
+        void put(byte[] bytes, int offset, int length) throws IOException {
+            if (length > buffer.remaining()) {
+                flushBuffer();
+                // Большой пакет пишем напрямую, без лишнего копирования через буфер
+                if (length >= buffer.capacity()) {
+                    if (compressor != null) {
+                        compress(Arrays.copyOfRange(bytes, offset, offset + length));
+                    } else {
+                        writeFully(ByteBuffer.wrap(bytes, offset, length));
+                    }
+                    return;
+                }
+            }
+            buffer.put(bytes, offset, length);
+        }
+
+        // Всё записанное уходит в файл, включая блоки, которые ещё сжимаются
+        void flush() throws IOException {
+            flushBuffer();
+            if (compressor != null) {
+                writeCompressed(true);
+            }
+        }
+
+        // Освобождает буфер; сжатые блоки пишутся по мере готовности
+        private void flushBuffer() throws IOException {
+            buffer.flip();
+            if (compressor == null) {
+                writeFully(buffer);
+            } else if (buffer.hasRemaining()) {
+                compress(Arrays.copyOf(buffer.array(), buffer.limit()));
+            }
+            buffer.clear();
+        }
+
+        private void compress(byte[] block) throws IOException {
+            compressor.submit(block, block.length);
+            writeCompressed(false);
+        }
+
+        private void writeCompressed(boolean all) throws IOException {
+            byte[] member;
+            while ((member = compressor.next(all)) != null) {
+                writeFully(ByteBuffer.wrap(member));
+            }
+        }
+
+        void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void writeFully(ByteBuffer source) throws IOException {
+            if (!source.hasRemaining()) {
+                return;
+            }
+            long started = metrics != null ? System.nanoTime() : 0;
+            int bytes = source.remaining();
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+            if (metrics != null) {
+                metrics.addWrite(System.nanoTime() - started, bytes);
+            }
+        }
+
+        @Override
+        public String toString() {
+            String target = path != null ? "FileChannel sink " + path : "stdout sink";
+            return target + " (buffer " + buffer.capacity() + " bytes)";
+        }
     }
 }
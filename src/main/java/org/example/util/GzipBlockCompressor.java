@@ -0,0 +1,91 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Сжатие выходного файла независимыми блоками, как в pigz/bgzip: каждый блок становится отдельным
+ * членом gzip и сжимается в пуле потоков, а в файл члены пишутся строго по порядку.
+ * Последовательность членов — корректный gzip, поэтому дописывание (-a) просто добавляет новые члены.
+ */
+class GzipBlockCompressor {
+
+    private static final byte[] HEADER = {0x1F, (byte) 0x8B, 8, 0, 0, 0, 0, 0, 0, (byte) 0xFF};
+
+    private final ExecutorService pool;
+    private final int level;
+    private final int maxPending;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+    GzipBlockCompressor(ExecutorService pool, int level, int maxPending) {
+        this.pool = pool;
+        this.level = level;
+        this.maxPending = maxPending;
+    }
+
+    // Блок передаётся во владение: вызывающий больше его не меняет
+    void submit(byte[] block, int length) {
+        pending.addLast(pool.submit(() -> member(block, length, level)));
+    }
+
+    /**
+     * Следующий сжатый член по порядку или null, если писать пока нечего.
+     *
+     * @param all ждать все отправленные блоки, а не только сверх лимита
+     */
+    byte[] next(boolean all) throws IOException {
+        Future<byte[]> head = pending.peekFirst();
+        if (head == null || !(all || head.isDone() || pending.size() > maxPending)) {
+            return null;
+        }
+        pending.removeFirst();
+        try {
+            return head.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing output", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Output compression failed", e.getCause());
+        }
+    }
+
+    // Один член gzip: заголовок, raw deflate, CRC32 и длина
+    static byte[] member(byte[] data, int length, int level) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            byte[] out = new byte[HEADER.length + length + length / 1000 + 64];
+            System.arraycopy(HEADER, 0, out, 0, HEADER.length);
+            int size = HEADER.length;
+            while (!deflater.finished()) {
+                if (size == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                size += deflater.deflate(out, size, out.length - size);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, length);
+            out = Arrays.copyOf(out, size + 8);
+            writeIntLE(out, size, crc.getValue());
+            writeIntLE(out, size + 4, length);
+            return out;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeIntLE(byte[] out, int offset, long value) {
+        out[offset] = (byte) value;
+        out[offset + 1] = (byte) (value >>> 8);
+        out[offset + 2] = (byte) (value >>> 16);
+        out[offset + 3] = (byte) (value >>> 24);
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Распаковка gzip-файла по членам (RFC 1952), начиная с произвольного смещения. Знает точное
+ * смещение конца каждого члена — по нему {@link ParallelGzipChannel} проверяет, что независимо
+ * распакованные куски стыкуются. Сжатые байты читаются позиционно, канал можно делить между потоками.
+ */
+class GzipMemberReader implements AutoCloseable {
+
+    private static final int INPUT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int RESERVED_FLAGS = 0xE0;
+
+    private final FileChannel channel;
+    private final byte[] input = new byte[INPUT_BUFFER_SIZE];
+    private final Inflater inflater = new Inflater(true);
+    private final CRC32 crc = new CRC32();
+    // Смещение input[0] в файле; непрочитанные байты — input[inputPos, inputLimit)
+    private long bufferStart;
+    private int inputPos;
+    private int inputLimit;
+    private long memberSize;
+
+    GzipMemberReader(FileChannel channel, long position) {
+        this.channel = channel;
+        this.bufferStart = position;
+    }
+
+    // Смещение в файле следующего непрочитанного байта; между членами — начало следующего члена
+    long position() {
+        return bufferStart + inputPos;
+    }
+
+    /**
+     * Разбирает заголовок члена в текущей позиции.
+     *
+     * @return false, если файл кончился или здесь не заголовок gzip (позиция тогда не определена)
+     */
+    boolean startMember() throws IOException {
+        if (!ensure(10)) {
+            return false;
+        }
+        int flags = input[inputPos + 3] & 0xFF;
+        if ((input[inputPos] & 0xFF) != 0x1F || (input[inputPos + 1] & 0xFF) != 0x8B
+                || input[inputPos + 2] != 8 || (flags & RESERVED_FLAGS) != 0) {
+            return false;
+        }
+        inputPos += 10;
+        if ((flags & FEXTRA) != 0) {
+            requireBytes(2);
+            int length = (input[inputPos] & 0xFF) | (input[inputPos + 1] & 0xFF) << 8;
+            inputPos += 2;
+            skip(length);
+        }
+        if ((flags & FNAME) != 0) {
+            skipZeroTerminated();
+        }
+        if ((flags & FCOMMENT) != 0) {
+            skipZeroTerminated();
+        }
+        if ((flags & FHCRC) != 0) {
+            skip(2);
+        }
+        inflater.reset();
+        crc.reset();
+        memberSize = 0;
+        return true;
+    }
+
+    /**
+     * Распаковывает очередную порцию текущего члена.
+     *
+     * @return число байт или -1, если член закончился (контрольная сумма и длина проверены)
+     */
+    int inflate(byte[] out, int offset, int length) throws IOException {
+        while (true) {
+            if (inflater.needsInput()) {
+                if (inputPos == inputLimit && !fill()) {
+                    throw new EOFException("Unexpected end of gzip member at offset " + position());
+                }
+                inflater.setInput(input, inputPos, inputLimit - inputPos);
+            }
+            int n;
+            try {
+                n = inflater.inflate(out, offset, length);
+            } catch (DataFormatException e) {
+                throw new ZipException("Invalid gzip data at offset " + position() + ": " + e.getMessage());
+            }
+            inputPos = inputLimit - inflater.getRemaining();
+            if (n > 0) {
+                crc.update(out, offset, n);
+                memberSize += n;
+                return n;
+            }
+            if (inflater.finished()) {
+                readTrailer();
+                return -1;
+            }
+            if (inflater.needsDictionary()) {
+                throw new ZipException("Gzip member requires a preset dictionary at offset " + position());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        inflater.end();
+    }
+
+    private void readTrailer() throws IOException {
+        requireBytes(8);
+        long expectedCrc = readIntLE();
+        long expectedSize = readIntLE();
+        if (expectedCrc != crc.getValue() || expectedSize != (memberSize & 0xFFFFFFFFL)) {
+            throw new ZipException("Corrupt gzip trailer at offset " + position());
+        }
+    }
+
+    private long readIntLE() {
+        long value = (input[inputPos] & 0xFFL) | (input[inputPos + 1] & 0xFFL) << 8
+                | (input[inputPos + 2] & 0xFFL) << 16 | (input[inputPos + 3] & 0xFFL) << 24;
+        inputPos += 4;
+        return value;
+    }
+
+    private void skip(long count) throws IOException {
+        while (count > 0) {
+            if (inputPos == inputLimit && !fill()) {
+                throw new EOFException("Unexpected end of gzip header");
+            }
+            int step = (int) Math.min(count, inputLimit - inputPos);
+            inputPos += step;
+            count -= step;
+        }
+    }
+
+    private void skipZeroTerminated() throws IOException {
+        while (true) {
+            if (inputPos == inputLimit && !fill()) {
+                throw new EOFException("Unexpected end of gzip header");
+            }
+            if (input[inputPos++] == 0) {
+                return;
+            }
+        }
+    }
+
+    private void requireBytes(int count) throws IOException {
+        if (!ensure(count)) {
+            throw new EOFException("Unexpected end of gzip data at offset " + position());
+        }
+    }
+
+    // Подчитывает, пока в буфере не окажется count непрочитанных байт; false — файл кончился раньше
+    private boolean ensure(int count) throws IOException {
+        while (inputLimit - inputPos < count) {
+            if (!fill()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean fill() throws IOException {
+        if (inputPos > 0) {
+            System.arraycopy(input, inputPos, input, 0, inputLimit - inputPos);
+            bufferStart += inputPos;
+            inputLimit -= inputPos;
+            inputPos = 0;
+        }
+        int n = channel.read(ByteBuffer.wrap(input, inputLimit, input.length - inputLimit), bufferStart + inputLimit);
+        if (n <= 0) {
+            return false;
+        }
+        inputLimit += n;
+        return true;
+    }
+}
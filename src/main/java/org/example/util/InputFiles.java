@@ -0,0 +1,92 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Открытие входа: обычный файл, stdin ("-") или gzip. Gzip распознаётся по сигнатуре,
+ * а не по расширению, и отдаётся уже распакованным; многочленный файл, если позволяют потоки,
+ * распаковывается параллельно ({@link ParallelGzipChannel}).
+ */
+public final class InputFiles {
+
+    // Отрезок сжатого файла на одну задачу параллельной распаковки
+    static final long GZIP_SEGMENT_SIZE = 1024 * 1024;
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private InputFiles() {
+    }
+
+    /**
+     * @param inflateThreads потоков для распаковки gzip; 1 — последовательно
+     */
+    public static ReadableByteChannel open(Path inputFile, int inflateThreads) throws IOException {
+        if (StandardStreams.isStdin(inputFile)) {
+            return openStdin();
+        }
+        FileChannel channel = FileChannel.open(inputFile, StandardOpenOption.READ);
+        try {
+            if (!startsWithGzipMagic(channel)) {
+                return channel;
+            }
+            if (inflateThreads > 1 && channel.size() > 2 * GZIP_SEGMENT_SIZE) {
+                return new ParallelGzipChannel(channel, inflateThreads, GZIP_SEGMENT_SIZE);
+            }
+            InputStream in = new GZIPInputStream(Channels.newInputStream(channel), GZIP_BUFFER_SIZE);
+            return new InputStreamChannel(in, true);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Обычный файл, который можно отображать в память и резать на диапазоны байт:
+     * не stdin и не gzip.
+     */
+    public static boolean isPlainFile(Path inputFile) {
+        if (StandardStreams.isStdin(inputFile) || !Files.isRegularFile(inputFile)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(inputFile, StandardOpenOption.READ)) {
+            return !startsWithGzipMagic(channel);
+        } catch (IOException e) {
+            // Ошибку доступа покажет обычная обработка файла
+            return false;
+        }
+    }
+
+    // Текущий System.in, поэтому работает и подменённый через System.setIn
+    private static ReadableByteChannel openStdin() throws IOException {
+        PushbackInputStream in = new PushbackInputStream(System.in, 2);
+        byte[] magic = new byte[2];
+        int n = in.readNBytes(magic, 0, 2);
+        in.unread(magic, 0, n);
+        if (n == 2 && isGzipMagic(magic[0], magic[1])) {
+            return new InputStreamChannel(new GZIPInputStream(in, GZIP_BUFFER_SIZE), false);
+        }
+        return new InputStreamChannel(in, false);
+    }
+
+    private static boolean startsWithGzipMagic(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(2);
+        while (magic.hasRemaining() && channel.read(magic, magic.position()) > 0) {
+            // дочитываем сигнатуру
+        }
+        return !magic.hasRemaining() && isGzipMagic(magic.get(0), magic.get(1));
+    }
+
+    private static boolean isGzipMagic(byte first, byte second) {
+        return first == (byte) 0x1F && second == (byte) 0x8B;
+    }
+}
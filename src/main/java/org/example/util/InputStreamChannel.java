@@ -0,0 +1,61 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Канал поверх InputStream (stdin, распакованный gzip). В отличие от Channels.newChannel
+ * читает прямо в массив блока обработчика, без промежуточного буфера и ограничения в 8 КБ на вызов.
+ */
+class InputStreamChannel implements ReadableByteChannel {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    // false — поток не закрывается вместе с каналом (System.in)
+    private final boolean closeStream;
+    private byte[] copyBuffer;
+    private boolean open = true;
+
+    InputStreamChannel(InputStream in, boolean closeStream) {
+        this.in = in;
+        this.closeStream = closeStream;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        if (dst.hasArray()) {
+            int n = in.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+            if (n > 0) {
+                dst.position(dst.position() + n);
+            }
+            return n;
+        }
+        if (copyBuffer == null) {
+            copyBuffer = new byte[COPY_BUFFER_SIZE];
+        }
+        int n = in.read(copyBuffer, 0, Math.min(copyBuffer.length, dst.remaining()));
+        if (n > 0) {
+            dst.put(copyBuffer, 0, n);
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        open = false;
+        if (closeStream) {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Растущий байтовый буфер для строк одного типа. Строки копируются в исходной кодировке
+ * и разделяются системным переводом строки, как у BufferedWriter.newLine().
+ */
+public class LineBuffer {
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] data;
+    private int size;
+
+    public LineBuffer(int initialCapacity) {
+        data = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    public void appendLine(ByteBuffer src, int offset, int length) {
+        ensureCapacity(size + length + LINE_SEPARATOR.length);
+        src.get(offset, data, size, length);
+        size += length;
+        for (byte b : LINE_SEPARATOR) {
+            data[size++] = b;
+        }
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public byte[] array() {
+        return data;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > data.length) {
+            data = Arrays.copyOf(data, Math.max(required, data.length * 2));
+        }
+    }
+}
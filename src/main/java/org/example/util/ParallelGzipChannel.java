@@ -0,0 +1,273 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipException;
+
+/**
+ * Параллельная распаковка многочленного gzip (pigz, конкатенация файлов). Сжатый файл делится
+ * на отрезки; для каждого отрезка задача ищет в нём заголовок члена и распаковывает члены
+ * с этого места, пока не перейдёт границу отрезка. Читатель склеивает результаты по порядку,
+ * принимая кусок, только если он начинается ровно там, где закончился предыдущий член.
+ * Ложный заголовок, один большой член или слишком большой выход отрезка не ломают результат:
+ * такой отрезок распаковывается последовательно прямо в вызывающем потоке.
+ */
+class ParallelGzipChannel implements ReadableByteChannel {
+
+    private static final int OUTPUT_CHUNK_SIZE = 256 * 1024;
+    // Задача не держит в памяти больше стольких распакованных байт на отрезок
+    private static final int MAX_SEGMENT_OUTPUT_FACTOR = 32;
+    private static final int HEADER_SIZE = 10;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long segmentSize;
+    private final int segmentCount;
+    private final int maxInFlight;
+    private final ExecutorService executor;
+    private final Deque<Future<Segment>> inFlight = new ArrayDeque<>();
+    private int submitted;
+    private int consumed;
+    // Смещение начала следующего члена, который ещё не отдан читателю
+    private long position;
+
+    private Iterator<byte[]> chunks;
+    private byte[] chunk;
+    private int chunkPos;
+    private int chunkLimit;
+    // Последовательная распаковка до конца члена, перешедшего границу sequentialTarget
+    private GzipMemberReader sequential;
+    private long sequentialTarget;
+    private byte[] sequentialBuffer;
+
+    ParallelGzipChannel(FileChannel channel, int threads, long segmentSize) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.segmentSize = segmentSize;
+        this.segmentCount = (int) ((size + segmentSize - 1) / segmentSize);
+        this.maxInFlight = threads * 2;
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "gzip-inflate");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        while (chunkPos == chunkLimit) {
+            if (!nextChunk()) {
+                return -1;
+            }
+        }
+        int n = Math.min(dst.remaining(), chunkLimit - chunkPos);
+        dst.put(chunk, chunkPos, n);
+        chunkPos += n;
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        if (sequential != null) {
+            sequential.close();
+        }
+        channel.close();
+    }
+
+    // Следующая порция распакованных байт; пустая порция допустима, false — конец данных
+    private boolean nextChunk() throws IOException {
+        if (sequential != null) {
+            return nextSequentialChunk();
+        }
+        if (chunks != null && chunks.hasNext()) {
+            setChunk(chunks.next(), -1);
+            return true;
+        }
+        chunks = null;
+        if (consumed == segmentCount || position >= size) {
+            return false;
+        }
+
+        submitAhead();
+        Future<Segment> future = inFlight.removeFirst();
+        long target = segmentEnd(consumed++);
+        if (position >= target) {
+            // Отрезок целиком покрыт предыдущим членом. Без прерывания: прерванный поток закрыл бы канал
+            future.cancel(false);
+            return true;
+        }
+        Segment segment = await(future);
+        if (segment != null && segment.start() == position) {
+            chunks = segment.chunks().iterator();
+            position = segment.end();
+            return true;
+        }
+        startSequential(target);
+        return true;
+    }
+
+    private boolean nextSequentialChunk() throws IOException {
+        int n = sequential.inflate(sequentialBuffer, 0, sequentialBuffer.length);
+        if (n >= 0) {
+            setChunk(sequentialBuffer, n);
+            return true;
+        }
+        position = sequential.position();
+        if (position < sequentialTarget && sequential.startMember()) {
+            return true;
+        }
+        sequential.close();
+        sequential = null;
+        if (position < sequentialTarget && position < size) {
+            // После последнего члена мусор — как и GZIPInputStream, не считаем его данными
+            position = size;
+        }
+        return true;
+    }
+
+    private void startSequential(long target) throws IOException {
+        if (sequentialBuffer == null) {
+            sequentialBuffer = new byte[OUTPUT_CHUNK_SIZE];
+        }
+        sequential = new GzipMemberReader(channel, position);
+        sequentialTarget = target;
+        if (!sequential.startMember()) {
+            sequential.close();
+            sequential = null;
+            if (position == 0) {
+                throw new ZipException("Not in GZIP format");
+            }
+            position = size;
+        }
+    }
+
+    private void setChunk(byte[] bytes, int length) {
+        chunk = bytes;
+        chunkPos = 0;
+        chunkLimit = length < 0 ? bytes.length : length;
+    }
+
+    private void submitAhead() {
+        while (submitted < segmentCount && inFlight.size() < maxInFlight) {
+            int index = submitted++;
+            inFlight.addLast(executor.submit(() -> inflateSegment(index)));
+        }
+    }
+
+    private long segmentEnd(int index) {
+        return Math.min(size, (index + 1) * segmentSize);
+    }
+
+    /**
+     * Распаковывает члены, начиная с заголовка в отрезке, пока конец члена не перейдёт границу
+     * отрезка. Если заголовок оказался ложным, пробуется следующий. null — подходящего нет.
+     */
+    private Segment inflateSegment(int index) throws IOException {
+        long target = segmentEnd(index);
+        if (index == 0) {
+            return inflateFrom(0, target);
+        }
+        long from = index * segmentSize;
+        byte[] bytes = readRange(from, Math.min(size, target + HEADER_SIZE));
+        int limit = (int) Math.min(target - from, bytes.length - HEADER_SIZE + 1);
+        for (int i = 0; i < limit; i++) {
+            if (isHeader(bytes, i)) {
+                Segment segment = inflateFrom(from + i, target);
+                if (segment != null) {
+                    return segment;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Segment inflateFrom(long start, long target) {
+        long maxOutput = segmentSize * MAX_SEGMENT_OUTPUT_FACTOR;
+        List<byte[]> chunks = new ArrayList<>();
+        long total = 0;
+        try (GzipMemberReader reader = new GzipMemberReader(channel, start)) {
+            byte[] buffer = new byte[OUTPUT_CHUNK_SIZE];
+            int filled = 0;
+            while (reader.position() < target) {
+                if (!reader.startMember()) {
+                    return null;
+                }
+                int n;
+                while ((n = reader.inflate(buffer, filled, buffer.length - filled)) >= 0) {
+                    filled += n;
+                    total += n;
+                    if (total > maxOutput) {
+                        return null;
+                    }
+                    if (filled == buffer.length) {
+                        chunks.add(buffer);
+                        buffer = new byte[OUTPUT_CHUNK_SIZE];
+                        filled = 0;
+                    }
+                }
+            }
+            if (filled > 0) {
+                chunks.add(Arrays.copyOf(buffer, filled));
+            }
+            return new Segment(start, reader.position(), chunks);
+        } catch (IOException e) {
+            // Ложный заголовок; настоящую ошибку в данных покажет последовательная распаковка
+            return null;
+        }
+    }
+
+    private byte[] readRange(long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+        while (buffer.hasRemaining() && channel.read(buffer, from + buffer.position()) > 0) {
+            // читаем весь отрезок
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    // Правдоподобный заголовок: сигнатура, deflate, нет зарезервированных флагов, известный XFL
+    private static boolean isHeader(byte[] bytes, int i) {
+        return bytes[i] == 0x1F && (bytes[i + 1] & 0xFF) == 0x8B && bytes[i + 2] == 8
+                && (bytes[i + 3] & 0xE0) == 0 && isKnownExtraFlags(bytes[i + 8]);
+    }
+
+    // XFL: 0, 2 (максимальное сжатие) или 4 (самое быстрое)
+    private static boolean isKnownExtraFlags(byte xfl) {
+        return xfl == 0 || xfl == 2 || xfl == 4;
+    }
+
+    private static Segment await(Future<Segment> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while inflating gzip", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    // Распакованный кусок: члены из [start, end) сжатого файла
+    private record Segment(long start, long end, List<byte[]> chunks) {
+    }
+}
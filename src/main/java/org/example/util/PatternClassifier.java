@@ -0,0 +1,454 @@
+package org.example.util;
+
+import org.example.model.DataType;
+import org.example.model.TypeRegistry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Распознаёт лексические типы из {@link TypeRegistry} одним детерминированным автоматом.
+ * <p>
+ * Шаблоны всех включённых типов разбираются, собираются в общий НКА (построение Томпсона)
+ * и переводятся в ДКА построением подмножеств. Строка проверяется за один проход:
+ * одно обращение к таблице переходов на символ, без возвратов и аллокаций, сколько бы
+ * типов ни было включено. Алфавит — ASCII; строка с другими символами ни одному типу не подходит.
+ * Если строка подходит под несколько шаблонов, побеждает тип, объявленный в реестре раньше.
+ */
+public final class PatternClassifier {
+
+    private static final int ALPHABET = 128;
+    private static final int DEAD = 0;
+    private static final int START = 1;
+
+    private static final Map<List<DataType>, PatternClassifier> CACHE = new ConcurrentHashMap<>();
+
+    // transitions[state * ALPHABET + c] — следующее состояние, DEAD — совпадений больше не будет
+    private final int[] transitions;
+    private final DataType[] accepting;
+    private final List<DataType> types;
+
+    private PatternClassifier(int[] transitions, DataType[] accepting, List<DataType> types) {
+        this.transitions = transitions;
+        this.accepting = accepting;
+        this.types = types;
+    }
+
+    /**
+     * Автомат для набора типов из реестра; собирается один раз на набор.
+     *
+     * @throws IllegalArgumentException если тип не из реестра или шаблон некорректен
+     */
+    public static PatternClassifier forTypes(List<DataType> types) {
+        return CACHE.computeIfAbsent(List.copyOf(types), PatternClassifier::compile);
+    }
+
+    // Тип, под шаблон которого подходит вся строка [from, to), или null
+    public DataType match(CharSequence s, int from, int to) {
+        int state = START;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= ALPHABET) return null;
+            state = transitions[state * ALPHABET + c];
+            if (state == DEAD) return null;
+        }
+        return accepting[state];
+    }
+
+    // Типы, которые автомат может распознать
+    public List<DataType> types() {
+        return types;
+    }
+
+    // Число состояний ДКА, включая мёртвое
+    int stateCount() {
+        return accepting.length;
+    }
+
+    private static PatternClassifier compile(List<DataType> types) {
+        for (DataType type : types) {
+            if (TypeRegistry.of(type) == null) {
+                throw new IllegalArgumentException("Not a pattern type: " + type);
+            }
+        }
+        Nfa nfa = new Nfa();
+        int start = nfa.newState();
+        // Порядок типов в реестре задаёт приоритет при неоднозначности
+        for (TypeRegistry.Definition definition : TypeRegistry.definitions()) {
+            if (!types.contains(definition.type())) continue;
+            Node pattern = new Parser(definition.pattern()).parse();
+            int[] fragment = nfa.build(pattern);
+            nfa.epsilon(start, fragment[0]);
+            nfa.accept(fragment[1], definition.type());
+        }
+        return determinize(nfa, start, types);
+    }
+
+    // Построение подмножеств: каждое состояние ДКА — эпсилон-замкнутое множество состояний НКА
+    private static PatternClassifier determinize(Nfa nfa, int nfaStart, List<DataType> types) {
+        Map<BitSet, Integer> ids = new HashMap<>();
+        List<BitSet> sets = new ArrayList<>();
+        sets.add(new BitSet());               // DEAD
+        ids.put(sets.get(DEAD), DEAD);
+        BitSet startSet = nfa.closure(single(nfaStart));
+        ids.put(startSet, START);
+        sets.add(startSet);
+
+        List<int[]> rows = new ArrayList<>();
+        rows.add(new int[ALPHABET]);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(START);
+        while (!queue.isEmpty()) {
+            int id = queue.poll();
+            while (rows.size() <= id) rows.add(null);
+            int[] row = new int[ALPHABET];
+            BitSet current = sets.get(id);
+            for (int c = 0; c < ALPHABET; c++) {
+                BitSet next = new BitSet();
+                for (int s = current.nextSetBit(0); s >= 0; s = current.nextSetBit(s + 1)) {
+                    boolean[] chars = nfa.chars.get(s);
+                    if (chars != null && chars[c]) next.set(nfa.next.get(s));
+                }
+                if (next.isEmpty()) continue;
+                BitSet closed = nfa.closure(next);
+                Integer target = ids.get(closed);
+                if (target == null) {
+                    target = sets.size();
+                    ids.put(closed, target);
+                    sets.add(closed);
+                    queue.add(target);
+                }
+                row[c] = target;
+            }
+            rows.set(id, row);
+        }
+
+        int[] transitions = new int[sets.size() * ALPHABET];
+        DataType[] accepting = new DataType[sets.size()];
+        for (int id = START; id < sets.size(); id++) {
+            System.arraycopy(rows.get(id), 0, transitions, id * ALPHABET, ALPHABET);
+            accepting[id] = nfa.accepted(sets.get(id));
+        }
+        return new PatternClassifier(transitions, accepting, types);
+    }
+
+    private static BitSet single(int state) {
+        BitSet set = new BitSet();
+        set.set(state);
+        return set;
+    }
+
+    /**
+     * НКА Томпсона: у состояния не больше одного перехода по классу символов
+     * и сколько угодно эпсилон-переходов.
+     */
+    private static final class Nfa {
+        final List<boolean[]> chars = new ArrayList<>();
+        final List<Integer> next = new ArrayList<>();
+        final List<List<Integer>> epsilons = new ArrayList<>();
+        final Map<Integer, DataType> accepts = new HashMap<>();
+        // Номер типа в порядке объявления; меньший побеждает
+        final Map<Integer, Integer> priorities = new HashMap<>();
+
+        int newState() {
+            chars.add(null);
+            next.add(-1);
+            epsilons.add(new ArrayList<>());
+            return chars.size() - 1;
+        }
+
+        void epsilon(int from, int to) {
+            epsilons.get(from).add(to);
+        }
+
+        void accept(int state, DataType type) {
+            accepts.put(state, type);
+            priorities.put(state, priorities.size());
+        }
+
+        DataType accepted(BitSet states) {
+            DataType best = null;
+            int bestPriority = Integer.MAX_VALUE;
+            for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) {
+                Integer priority = priorities.get(s);
+                if (priority != null && priority < bestPriority) {
+                    bestPriority = priority;
+                    best = accepts.get(s);
+                }
+            }
+            return best;
+        }
+
+        BitSet closure(BitSet states) {
+            BitSet closed = (BitSet) states.clone();
+            ArrayDeque<Integer> stack = new ArrayDeque<>();
+            states.stream().forEach(stack::push);
+            while (!stack.isEmpty()) {
+                for (int to : epsilons.get(stack.pop())) {
+                    if (!closed.get(to)) {
+                        closed.set(to);
+                        stack.push(to);
+                    }
+                }
+            }
+            return closed;
+        }
+
+        // Фрагмент {вход, выход} для узла; повторы разворачиваются в копии фрагмента
+        int[] build(Node node) {
+            if (node instanceof Chars c) {
+                int in = newState();
+                int out = newState();
+                chars.set(in, c.set);
+                next.set(in, out);
+                return new int[]{in, out};
+            }
+            if (node instanceof Concat concat) {
+                int in = newState();
+                int out = in;
+                for (Node part : concat.parts) {
+                    int[] fragment = build(part);
+                    epsilon(out, fragment[0]);
+                    out = fragment[1];
+                }
+                return new int[]{in, out};
+            }
+            if (node instanceof Alt alt) {
+                int in = newState();
+                int out = newState();
+                for (Node option : alt.options) {
+                    int[] fragment = build(option);
+                    epsilon(in, fragment[0]);
+                    epsilon(fragment[1], out);
+                }
+                return new int[]{in, out};
+            }
+            Repeat repeat = (Repeat) node;
+            int in = newState();
+            int out = in;
+            for (int i = 0; i < repeat.min; i++) {
+                int[] fragment = build(repeat.body);
+                epsilon(out, fragment[0]);
+                out = fragment[1];
+            }
+            if (repeat.max < 0) {
+                int[] loop = build(repeat.body);
+                epsilon(out, loop[0]);
+                epsilon(loop[1], loop[0]);
+                int end = newState();
+                epsilon(out, end);
+                epsilon(loop[1], end);
+                return new int[]{in, end};
+            }
+            int end = newState();
+            for (int i = repeat.min; i < repeat.max; i++) {
+                epsilon(out, end);
+                int[] fragment = build(repeat.body);
+                epsilon(out, fragment[0]);
+                out = fragment[1];
+            }
+            epsilon(out, end);
+            return new int[]{in, end};
+        }
+    }
+
+    private interface Node {
+    }
+
+    private record Chars(boolean[] set) implements Node {
+    }
+
+    private record Concat(List<Node> parts) implements Node {
+    }
+
+    private record Alt(List<Node> options) implements Node {
+    }
+
+    // max < 0 — без ограничения сверху
+    private record Repeat(Node body, int min, int max) implements Node {
+    }
+
+    /**
+     * Разбор подмножества синтаксиса регулярных выражений, достаточного для реестра:
+     * литералы, экранирование, \d, точка, классы [...] с диапазонами и отрицанием,
+     * группы (...), альтернатива |, кванторы ?, *, +, {n}, {n,}, {n,m}.
+     */
+    private static final class Parser {
+        private final String pattern;
+        private int pos;
+
+        Parser(String pattern) {
+            this.pattern = pattern;
+        }
+
+        Node parse() {
+            Node node = alternation();
+            if (pos < pattern.length()) {
+                throw error("Unexpected '" + pattern.charAt(pos) + "'");
+            }
+            return node;
+        }
+
+        private Node alternation() {
+            List<Node> options = new ArrayList<>();
+            options.add(concatenation());
+            while (peek('|')) {
+                pos++;
+                options.add(concatenation());
+            }
+            return options.size() == 1 ? options.get(0) : new Alt(options);
+        }
+
+        private Node concatenation() {
+            List<Node> parts = new ArrayList<>();
+            while (pos < pattern.length() && !peek('|') && !peek(')')) {
+                parts.add(quantified(atom()));
+            }
+            return parts.size() == 1 ? parts.get(0) : new Concat(parts);
+        }
+
+        private Node quantified(Node atom) {
+            if (pos >= pattern.length()) return atom;
+            switch (pattern.charAt(pos)) {
+                case '?' -> {
+                    pos++;
+                    return new Repeat(atom, 0, 1);
+                }
+                case '*' -> {
+                    pos++;
+                    return new Repeat(atom, 0, -1);
+                }
+                case '+' -> {
+                    pos++;
+                    return new Repeat(atom, 1, -1);
+                }
+                case '{' -> {
+                    pos++;
+                    int min = number();
+                    int max = min;
+                    if (peek(',')) {
+                        pos++;
+                        max = peek('}') ? -1 : number();
+                    }
+                    expect('}');
+                    if (max >= 0 && max < min) {
+                        throw error("Bad repetition {" + min + "," + max + "}");
+                    }
+                    return new Repeat(atom, min, max);
+                }
+                default -> {
+                    return atom;
+                }
+            }
+        }
+
+        private Node atom() {
+            char c = pattern.charAt(pos++);
+            switch (c) {
+                case '(' -> {
+                    Node group = alternation();
+                    expect(')');
+                    return group;
+                }
+                case '[' -> {
+                    return charClass();
+                }
+                case '.' -> {
+                    boolean[] any = new boolean[ALPHABET];
+                    Arrays.fill(any, true);
+                    any['\n'] = false;
+                    return new Chars(any);
+                }
+                case '\\' -> {
+                    boolean[] set = new boolean[ALPHABET];
+                    escape(set);
+                    return new Chars(set);
+                }
+                case '?', '*', '+', '{', ')', ']', '}' -> throw error("Unexpected '" + c + "'");
+                default -> {
+                    boolean[] set = new boolean[ALPHABET];
+                    set[ascii(c)] = true;
+                    return new Chars(set);
+                }
+            }
+        }
+
+        private Node charClass() {
+            boolean[] set = new boolean[ALPHABET];
+            boolean negated = peek('^');
+            if (negated) pos++;
+            boolean first = true;
+            while (first || !peek(']')) {
+                if (pos >= pattern.length()) throw error("Unclosed character class");
+                first = false;
+                char c = pattern.charAt(pos++);
+                if (c == '\\') {
+                    if (pos < pattern.length() && pattern.charAt(pos) == 'd') {
+                        escape(set);
+                        continue;
+                    }
+                    c = pattern.charAt(pos++);
+                }
+                char last = c;
+                if (peek('-') && pos + 1 < pattern.length() && pattern.charAt(pos + 1) != ']') {
+                    pos++;
+                    last = pattern.charAt(pos++);
+                    if (last == '\\') last = pattern.charAt(pos++);
+                    if (last < c) throw error("Bad range " + c + "-" + last);
+                }
+                for (int ch = c; ch <= last; ch++) {
+                    set[ascii((char) ch)] = true;
+                }
+            }
+            pos++;
+            if (negated) {
+                for (int ch = 0; ch < ALPHABET; ch++) set[ch] = !set[ch];
+            }
+            return new Chars(set);
+        }
+
+        // Символ после '\': \d или экранированный литерал
+        private void escape(boolean[] set) {
+            if (pos >= pattern.length()) throw error("Dangling backslash");
+            char c = pattern.charAt(pos++);
+            if (c == 'd') {
+                for (char d = '0'; d <= '9'; d++) set[d] = true;
+            } else if (Character.isLetterOrDigit(c)) {
+                throw error("Unsupported escape \\" + c);
+            } else {
+                set[ascii(c)] = true;
+            }
+        }
+
+        private int number() {
+            int start = pos;
+            while (pos < pattern.length() && Character.isDigit(pattern.charAt(pos))) pos++;
+            if (start == pos) throw error("Expected a number");
+            return Integer.parseInt(pattern, start, pos, 10);
+        }
+
+        private boolean peek(char c) {
+            return pos < pattern.length() && pattern.charAt(pos) == c;
+        }
+
+        private void expect(char c) {
+            if (!peek(c)) throw error("Expected '" + c + "'");
+            pos++;
+        }
+
+        private int ascii(char c) {
+            if (c >= ALPHABET) throw error("Non-ASCII character '" + c + "'");
+            return c;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at " + pos + " in pattern " + pattern);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.util;
+
+import org.example.model.RunMetrics;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Периодический отчёт о ходе обработки (--progress): доля обработанных байт от общего размера входа,
+ * текущая скорость в строках и мегабайтах в секунду и оставшееся время. Работает в фоновом потоке
+ * и только читает счётчики прогресса {@link RunMetrics}, рабочие потоки его не ждут.
+ */
+public class ProgressReporter implements AutoCloseable {
+
+    public static final long DEFAULT_INTERVAL_MILLIS = 2000;
+
+    private final RunMetrics metrics;
+    private final long totalBytes;
+    private final PrintStream out;
+    private final long started;
+    private final ScheduledExecutorService scheduler;
+    // Предыдущий замер для текущей скорости; пишется только потоком отчёта
+    private long lastNanos;
+    private long lastBytes;
+    private long lastLines;
+
+    /**
+     * Создаёт отчёт и запускает его по расписанию.
+     *
+     * @param totalBytes общий размер входа в байтах, 0 — неизвестен
+     */
+    public static ProgressReporter start(RunMetrics metrics, long totalBytes, PrintStream out, long intervalMillis) {
+        ProgressReporter reporter = new ProgressReporter(metrics, totalBytes, out);
+        // Планируем уже после конструктора, чтобы поток отчёта не увидел недостроенный объект
+        reporter.scheduler.scheduleAtFixedRate(reporter::report, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        return reporter;
+    }
+
+    private ProgressReporter(RunMetrics metrics, long totalBytes, PrintStream out) {
+        this.metrics = metrics;
+        this.totalBytes = totalBytes;
+        this.out = out;
+        this.started = System.nanoTime();
+        this.lastNanos = started;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Останавливает отчёты и печатает итоговую строку
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        report();
+    }
+
+    synchronized void report() {
+        long now = System.nanoTime();
+        long bytes = metrics.getBytesProcessed();
+        long lines = metrics.getLinesProcessed();
+        double seconds = (now - lastNanos) / 1e9;
+        double bytesPerSecond = seconds > 0 ? (bytes - lastBytes) / seconds : 0;
+        double linesPerSecond = seconds > 0 ? (lines - lastLines) / seconds : 0;
+        lastNanos = now;
+        lastBytes = bytes;
+        lastLines = lines;
+        out.println(format(bytes, lines, bytesPerSecond, linesPerSecond, (now - started) / 1e9));
+    }
+
+    String format(long bytes, long lines, double bytesPerSecond, double linesPerSecond, double elapsedSeconds) {
+        StringBuilder line = new StringBuilder("Progress: ");
+        if (totalBytes > 0) {
+            double done = Math.min(1.0, (double) bytes / totalBytes);
+            line.append(String.format(Locale.ROOT, "%.1f%% (%s / %s)", done * 100, megabytes(bytes), megabytes(totalBytes)));
+        } else {
+            line.append(megabytes(bytes));
+        }
+        line.append(String.format(Locale.ROOT, ", %d lines, %.0f lines/s, %.1f MB/s", lines, linesPerSecond,
+                bytesPerSecond / (1024 * 1024)));
+        // Оставшееся время — по средней скорости с начала: текущая слишком скачет между замерами
+        if (totalBytes > 0 && bytes > 0 && bytes < totalBytes) {
+            double averageRate = bytes / elapsedSeconds;
+            line.append(", ETA ").append(duration((long) ((totalBytes - bytes) / averageRate)));
+        }
+        return line.toString();
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024));
+    }
+
+    private static String duration(long seconds) {
+        return String.format(Locale.ROOT, "%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+}
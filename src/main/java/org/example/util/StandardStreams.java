@@ -0,0 +1,73 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * stdin и stdout для обработки в конвейере shell: вход "-" читается теми же блоками, что и файлы
+ * (см. {@link InputFiles}), а строки выбранного типа (--stdout) пишутся в stdout вместо файла.
+ * Закрытие канала не закрывает сам System.out.
+ */
+public final class StandardStreams {
+
+    // Имя входного файла, означающее stdin
+    public static final String STDIN_NAME = "-";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private StandardStreams() {
+    }
+
+    public static boolean isStdin(Path inputFile) {
+        return inputFile.getNameCount() == 1 && inputFile.toString().equals(STDIN_NAME);
+    }
+
+    public static WritableByteChannel stdout() {
+        return new OutputChannel(System.out);
+    }
+
+    private static final class OutputChannel implements WritableByteChannel {
+
+        private final OutputStream out;
+        private byte[] copyBuffer;
+        private boolean open = true;
+
+        OutputChannel(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int length = src.remaining();
+            if (src.hasArray()) {
+                out.write(src.array(), src.arrayOffset() + src.position(), length);
+                src.position(src.limit());
+                return length;
+            }
+            // Буферы записи direct: переносим частями через массив
+            if (copyBuffer == null) {
+                copyBuffer = new byte[COPY_BUFFER_SIZE];
+            }
+            while (src.hasRemaining()) {
+                int n = Math.min(copyBuffer.length, src.remaining());
+                src.get(copyBuffer, 0, n);
+                out.write(copyBuffer, 0, n);
+            }
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+            open = false;
+        }
+    }
+}
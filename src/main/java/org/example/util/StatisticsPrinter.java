@@ -4,64 +4,138 @@ import org.example.model.TotalStats;
 import org.example.model.StringStatistic;
 import org.example.model.IntegerStatistic;
 import org.example.model.FloatStatistic;
+import org.example.model.PatternStatistic;
+import org.example.model.TypeRegistry;
+import org.example.model.SpaceSaving;
+import org.example.model.TypeStatistic;
 
+import java.io.PrintStream;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.util.List;
 import java.util.Locale;
+import java.util.function.DoubleUnaryOperator;
 
 /**
  * Класс для вывода статистики в консоль
  */
 public class StatisticsPrinter {
-    private final DecimalFormat floatFormat;
-    private final DecimalFormat intAvgFormat;
+    // Нужны только полной статистике и создаются при первом её выводе: DecimalFormat загружает
+    // данные локали, а это заметная часть запуска с краткой статистикой или без неё
+    private DecimalFormat floatFormat;
+    private DecimalFormat intAvgFormat;
 
-    public StatisticsPrinter() {
-        this.floatFormat = createFloatFormat();
-        this.intAvgFormat = createIntAvgFormat();
+    public void print(TotalStats stats, boolean fullStats) {
+        print(stats, fullStats, System.out);
     }
 
-    public void print(TotalStats stats, boolean fullStats) {
+    // Вывод в другой поток, например в stderr, когда stdout занят строками (--stdout)
+    public void print(TotalStats stats, boolean fullStats, PrintStream out) {
         if (fullStats) {
-            printAll(stats);
+            printAll(stats, out);
         } else {
-            printSummary(stats);
+            printSummary(stats, out);
         }
     }
 
-    private void printAll(TotalStats stats) {
+    private void printAll(TotalStats stats, PrintStream out) {
+        if (floatFormat == null) {
+            floatFormat = createFloatFormat();
+            intAvgFormat = createIntAvgFormat();
+        }
         StringStatistic ss = stats.getStringStatistic();
         IntegerStatistic is = stats.getIntegerStatistic();
         FloatStatistic fs = stats.getFloatStatistic();
 
-        System.out.println("=== Полная статистика ===");
-        System.out.printf("Strings: count=%d, minLen=%d, maxLen=%d%n",
+        out.println("=== Полная статистика ===");
+        out.printf("Strings: count=%d, minLen=%d, maxLen=%d%n",
                 ss.getTypeCnt(), ss.getMinLen(), ss.getMaxLen());
+        if (ss.getTypeCnt() > 0) {
+            printQuantiles("  length ", ss::getLengthQuantile, out);
+        }
+        printDistinct(ss, out);
+        printTopStrings(ss, out);
 
-        System.out.printf("Integers: count=%d, min=%d, max=%d, sum=%d, avg=%s%n",
+        out.printf("Integers: count=%d, min=%d, max=%d, sum=%d, avg=%s%n",
                 is.getTypeCnt(),
-                is.getMin(),
-                is.getMax(),
+                is.getExactMin(),
+                is.getExactMax(),
                 is.getSum(),
                 intAvgFormat.format(is.getMiddle()));
+        if (is.getTypeCnt() > 0) {
+            printQuantiles("  ", is::getQuantile, out);
+        }
+        printDistinct(is, out);
 
-        System.out.printf("Floats: count=%d, min=%s, max=%s, sum=%s, avg=%s%n",
+        out.printf("Floats: count=%d, min=%s, max=%s, sum=%s, avg=%s%n",
                 fs.getTypeCnt(),
                 floatFormat.format(fs.getMin()),
                 floatFormat.format(fs.getMax()),
                 floatFormat.format(fs.getSum()),
                 floatFormat.format(fs.getMiddle()));
+        if (fs.getTypeCnt() > 0) {
+            printQuantiles("  ", fs::getQuantile, out);
+        }
+        printDistinct(fs, out);
+
+        // Типы из реестра выводятся, только если что-то распознано (--types)
+        for (TypeRegistry.Definition definition : TypeRegistry.definitions()) {
+            PatternStatistic ps = stats.getPatternStatistic(definition.type());
+            if (ps.getTypeCnt() > 0) {
+                out.printf("%s: count=%d, min=%s, max=%s%n",
+                        definition.title(), ps.getTypeCnt(), ps.getMin(), ps.getMax());
+                printDistinct(ps, out);
+            }
+        }
     }
 
-    private void printSummary(TotalStats stats) {
+    // Частота каждой строки в [count - error, count]
+    private void printTopStrings(StringStatistic ss, PrintStream out) {
+        if (ss.getTopStrings() == null) {
+            return;
+        }
+        List<SpaceSaving.Entry> top = ss.getTopStrings().top();
+        out.printf("  top %d:%n", top.size());
+        for (SpaceSaving.Entry entry : top) {
+            if (entry.error() == 0) {
+                out.printf("    %s: %d%n", entry.value(), entry.count());
+            } else {
+                out.printf("    %s: %d (err ≤ %d)%n", entry.value(), entry.count(), entry.error());
+            }
+        }
+    }
+
+    private void printDistinct(TypeStatistic stat, PrintStream out) {
+        if (stat.getDistinct() != null) {
+            out.printf("  distinct≈%d%n", stat.getDistinctCount());
+        }
+    }
+
+    // Приближённые перцентили по гистограмме (относительная ошибка меньше 1%)
+    private void printQuantiles(String prefix, DoubleUnaryOperator quantile, PrintStream out) {
+        out.printf("%sp50=%s, p95=%s, p99=%s%n", prefix,
+                floatFormat.format(quantile.applyAsDouble(0.50)),
+                floatFormat.format(quantile.applyAsDouble(0.95)),
+                floatFormat.format(quantile.applyAsDouble(0.99)));
+    }
+
+    private void printSummary(TotalStats stats, PrintStream out) {
         IntegerStatistic is = stats.getIntegerStatistic();
         FloatStatistic fs = stats.getFloatStatistic();
-        int stringCnt = stats.getStringStatistic().getTypeCnt();
+        long stringCnt = stats.getStringStatistic().getTypeCnt();
+
+        StringBuilder patterns = new StringBuilder();
+        for (TypeRegistry.Definition definition : TypeRegistry.definitions()) {
+            long count = stats.getCount(definition.type());
+            if (count > 0) {
+                patterns.append(", ").append(definition.name()).append(": ").append(count);
+            }
+        }
 
-        System.out.println("=== Краткая статистика ===");
-        System.out.printf("Всего элементов: %d (int: %d, float: %d, string: %d)%n",
-                is.getTypeCnt() + fs.getTypeCnt() + stringCnt,
-                is.getTypeCnt(), fs.getTypeCnt(), stringCnt);
+        out.println("=== Краткая статистика ===");
+        out.printf("Всего элементов: %d (int: %d, float: %d, string: %d%s)%n",
+                stats.getTotalCount(),
+                is.getTypeCnt(), fs.getTypeCnt(), stringCnt, patterns);
     }
 
     private static DecimalFormat createFloatFormat() {
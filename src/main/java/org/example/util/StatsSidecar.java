@@ -0,0 +1,140 @@
+package org.example.util;
+
+import org.example.dto.FilterConfig;
+import org.example.model.DataType;
+import org.example.model.TotalStats;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Файл накопленной статистики рядом с выходными файлами (<prefix>stats.bin).
+ * Описывает всё содержимое integers/floats/strings, поэтому в режиме -a полная статистика
+ * получается слиянием с текущим запуском, без перечитывания старых выходных файлов.
+ */
+public class StatsSidecar {
+
+    private static final int MAGIC = 0x53544154; // "STAT"
+    private static final int VERSION = 6;
+
+    private final FilterConfig config;
+    private final Path path;
+    private final PrintStream err;
+
+    public StatsSidecar(FilterConfig config) {
+        this(config, System.err);
+    }
+
+    // err — куда предупреждать о недоступном файле статистики
+    public StatsSidecar(FilterConfig config, PrintStream err) {
+        this.config = config;
+        this.err = err;
+        this.path = config.outputPath().resolve(config.filePrefix() + "stats.bin");
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Сливает статистику запуска с сохранённой до него и перезаписывает файл. Без -a тип, который
+     * встретился в запуске, начинается заново (его файл перезаписан), остальные типы сохраняются.
+     *
+     * @param previous результат {@link #load} до начала запуска или null
+     * @return статистика по всему содержимому выходных файлов
+     */
+    public TotalStats update(TotalStats previous, TotalStats run) throws IOException {
+        run = writtenToFiles(run);
+        if (previous == null && isEmpty(run)) {
+            // Ничего не записано и файла статистики не было — не создаём лишних файлов
+            return run;
+        }
+
+        TotalStats cumulative = new TotalStats();
+        if (previous != null) {
+            for (DataType type : DataType.values()) {
+                if (config.appendMode() || run.getCount(type) == 0) {
+                    cumulative.merge(type, previous);
+                }
+            }
+        }
+        cumulative.merge(run);
+        save(cumulative);
+        return cumulative;
+    }
+
+    /**
+     * Читает сохранённую статистику; вызывается до записи новых строк.
+     * Отсутствующий или повреждённый файл — null.
+     */
+    public TotalStats load(FileWriter writer) {
+        if (!Files.exists(path)) {
+            if (config.appendMode() && hasOutputs(writer)) {
+                err.println("⚠️ Нет файла статистики " + path
+                        + ": накопленная статистика будет считаться с текущего запуска");
+            }
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                err.println("⚠️ Неизвестный формат файла статистики " + path + ", он будет перезаписан");
+                return null;
+            }
+            return TotalStats.readFrom(in);
+        } catch (IOException e) {
+            err.println("⚠️ Не удалось прочитать файл статистики " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Запись во временный файл и атомарная замена: оборванный запуск не оставит битый файл
+    private void save(TotalStats stats) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            stats.writeTo(out);
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static boolean isEmpty(TotalStats stats) {
+        return stats.getTotalCount() == 0;
+    }
+
+    // Строки типа, выведенного в stdout (--stdout), в выходные файлы не попали
+    private TotalStats writtenToFiles(TotalStats run) {
+        DataType stdoutType = config.stdoutType();
+        if (stdoutType == null) {
+            return run;
+        }
+        TotalStats written = new TotalStats();
+        for (DataType type : DataType.values()) {
+            if (type != stdoutType) {
+                written.merge(type, run);
+            }
+        }
+        return written;
+    }
+
+    private static boolean hasOutputs(FileWriter writer) {
+        for (DataType type : DataType.values()) {
+            if (Files.exists(writer.buildFilePath(type))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,21 +1,300 @@
 package org.example.util;
 
 import org.example.model.DataType;
+import org.example.model.ParsedValue;
 
+import java.math.BigInteger;
+
+/**
+ * Определяет тип строки за один проход по символам, без исключений и аллокаций.
+ * <p>
+ * Результат совпадает с прежней логикой "Long.parseLong, иначе Double.parseDouble, иначе строка":
+ * знаки, экспонента, суффиксы f/d, NaN/Infinity, шестнадцатеричные float и переполнение long.
+ * Во время того же прохода вычисляется и само число, так что повторно строку никто не разбирает.
+ * <p>
+ * С включённым bigIntegers целые вне диапазона long тоже считаются INTEGER (значение в bigValue),
+ * а не FLOAT, как у Double.parseDouble.
+ * <p>
+ * Если задан {@link PatternClassifier}, строки, не ставшие числом, дополнительно проверяются
+ * шаблонами включённых типов (--types). Числа распознаются первыми: "2024" остаётся INTEGER.
+ */
 public class TypeDetector {
+
+    // Степени десяти, точно представимые в double: m * 10^e округляется корректно при m <= 2^53
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final boolean bigIntegers;
+    // null — лексические типы не включены
+    private final PatternClassifier patterns;
+
+    public TypeDetector() {
+        this(false);
+    }
+
+    public TypeDetector(boolean bigIntegers) {
+        this(bigIntegers, null);
+    }
+
+    public TypeDetector(boolean bigIntegers, PatternClassifier patterns) {
+        this.bigIntegers = bigIntegers;
+        this.patterns = patterns;
+    }
+
+    // Может ли детектор выдать этот тип: числа и строки — всегда, типы из реестра — если включены
+    public boolean detects(DataType type) {
+        return switch (type) {
+            case INTEGER, FLOAT, STRING -> true;
+            default -> patterns != null && patterns.types().contains(type);
+        };
+    }
+
     public DataType detectType(String s) {
-        if (s.isEmpty()) return DataType.STRING;
+        return classify(s, 0, s.length(), null);
+    }
+
+    public DataType detectType(CharSequence s, int from, int to) {
+        return classify(s, from, to, null);
+    }
+
+    public DataType classify(String s, ParsedValue out) {
+        return classify(s, 0, s.length(), out);
+    }
+
+    /**
+     * Определяет тип строки и, если out != null, кладёт в него тип и разобранное значение:
+     * longValue для INTEGER, doubleValue для FLOAT.
+     */
+    public DataType classify(CharSequence s, int from, int to, ParsedValue out) {
+        if (bigIntegers && out != null) {
+            out.setBigValue(null);
+        }
+        DataType type = scan(s, from, to, out);
+        if (type == DataType.STRING && patterns != null) {
+            DataType pattern = patterns.match(s, from, to);
+            if (pattern != null) {
+                type = pattern;
+            }
+        }
+        if (out != null) {
+            out.setType(type);
+        }
+        return type;
+    }
+
+    private DataType scan(CharSequence s, int from, int to, ParsedValue out) {
+        if (from >= to) return DataType.STRING;
 
-        try {
-            Long.parseLong(s);
+        // Long.parseLong не допускает пробелов по краям, а Double.parseDouble их обрезает
+        if (s.charAt(from) <= ' ' || s.charAt(to - 1) <= ' ') {
+            while (from < to && s.charAt(from) <= ' ') from++;
+            while (to > from && s.charAt(to - 1) <= ' ') to--;
+            return from < to && isFloat(s, from, to, out) ? DataType.FLOAT : DataType.STRING;
+        }
+
+        int i = from;
+        char c = s.charAt(i);
+        boolean negative = c == '-';
+        if (negative || c == '+') i++;
+        int digitsStart = i;
+
+        // Накопление как в Long.parseLong: в отрицательную сторону, чтобы поймать переполнение
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multmin = limit / 10;
+        long result = 0;
+        boolean overflow = false;
+        boolean unicodeDigits = false;
+
+        while (i < to) {
+            c = s.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c >= 0x80 && (digit = Character.digit(c, 10)) >= 0) {
+                // Long.parseLong принимает любые цифры Unicode, Double.parseDouble — только ASCII
+                unicodeDigits = true;
+            } else {
+                break;
+            }
+            if (!overflow) {
+                if (result < multmin) {
+                    overflow = true;
+                } else {
+                    result *= 10;
+                    if (result < limit + digit) {
+                        overflow = true;
+                    } else {
+                        result -= digit;
+                    }
+                }
+            }
+            i++;
+        }
+
+        if (i == to && i > digitsStart && !overflow) {
+            if (out != null) {
+                out.setLongValue(negative ? result : -result);
+            }
             return DataType.INTEGER;
-        } catch (Exception e) {
-            try {
-                Double.parseDouble(s);
-                return DataType.FLOAT;
-            } catch (Exception ex) {
-                return DataType.STRING;
+        }
+        if (i == to && overflow && bigIntegers) {
+            // Переполнение long — редкий путь, здесь уже можно аллоцировать
+            if (out != null) {
+                out.setBigValue(new BigInteger(s.subSequence(from, to).toString()));
             }
+            return DataType.INTEGER;
         }
+        if (unicodeDigits) return DataType.STRING;
+
+        // Продолжаем с того же места по грамматике Double.parseDouble
+        boolean exact = !overflow && result >= -MAX_EXACT_MANTISSA;
+        return isFloatTail(s, from, to, digitsStart, i, exact ? -result : 0, exact, out)
+                ? DataType.FLOAT
+                : DataType.STRING;
+    }
+
+    private static boolean isFloat(CharSequence s, int from, int to, ParsedValue out) {
+        int i = from;
+        char c = s.charAt(i);
+        if (c == '-' || c == '+') i++;
+        int digitsStart = i;
+        long mantissa = 0;
+        boolean exact = true;
+        while (i < to && isDigit(c = s.charAt(i))) {
+            if (exact) {
+                exact = mantissa <= (MAX_EXACT_MANTISSA - (c - '0')) / 10;
+                mantissa = mantissa * 10 + (c - '0');
+            }
+            i++;
+        }
+        return isFloatTail(s, from, to, digitsStart, i, mantissa, exact, out);
+    }
+
+    /**
+     * Разбирает остаток числа с плавающей точкой, когда знак и целая часть [digitsStart, i) уже прочитаны.
+     * mantissa — значение целой части, пока оно точно представимо в double (exact).
+     */
+    private static boolean isFloatTail(CharSequence s, int from, int to, int digitsStart, int i,
+                                       long mantissa, boolean exact, ParsedValue out) {
+        boolean negative = s.charAt(from) == '-';
+        int intDigits = i - digitsStart;
+        if (intDigits == 0) {
+            if (matchesToEnd(s, i, to, "NaN")) {
+                return setDouble(out, Double.NaN);
+            }
+            if (matchesToEnd(s, i, to, "Infinity")) {
+                return setDouble(out, negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+            }
+        } else if (intDigits == 1 && s.charAt(digitsStart) == '0' && i < to && (s.charAt(i) | 0x20) == 'x') {
+            if (!isHexFloat(s, i + 1, to)) return false;
+            return out == null || setDouble(out, parseSlow(s, from, to));
+        }
+
+        int exp10 = 0;
+        int fracDigits = 0;
+        char c;
+        if (i < to && s.charAt(i) == '.') {
+            i++;
+            while (i < to && isDigit(c = s.charAt(i))) {
+                if (exact) {
+                    exact = mantissa <= (MAX_EXACT_MANTISSA - (c - '0')) / 10;
+                    mantissa = mantissa * 10 + (c - '0');
+                    exp10--;
+                }
+                i++;
+                fracDigits++;
+            }
+        }
+        if (intDigits + fracDigits == 0) return false;
+
+        if (i < to && (s.charAt(i) | 0x20) == 'e') {
+            i++;
+            boolean expNegative = false;
+            if (i < to && ((c = s.charAt(i)) == '+' || c == '-')) {
+                expNegative = c == '-';
+                i++;
+            }
+            int expStart = i;
+            int exp = 0;
+            while (i < to && isDigit(c = s.charAt(i))) {
+                // Насыщение: такие показатели всё равно вне быстрого пути
+                if (exp < 100_000) exp = exp * 10 + (c - '0');
+                i++;
+            }
+            if (i == expStart) return false;
+            exp10 += expNegative ? -exp : exp;
+        }
+        if (!isEndOrSuffix(s, i, to)) return false;
+
+        if (out != null) {
+            if (exact && exp10 >= -22 && exp10 <= 22) {
+                double value = exp10 >= 0 ? mantissa * POW10[exp10] : mantissa / POW10[-exp10];
+                out.setDoubleValue(negative ? -value : value);
+            } else {
+                out.setDoubleValue(parseSlow(s, from, to));
+            }
+        }
+        return true;
+    }
+
+    // Формат 0x<hex>[.<hex>]p<exp>[fFdD], показатель обязателен
+    private static boolean isHexFloat(CharSequence s, int i, int to) {
+        int hexDigits = 0;
+        while (i < to && isHexDigit(s.charAt(i))) {
+            i++;
+            hexDigits++;
+        }
+        if (i < to && s.charAt(i) == '.') {
+            i++;
+            while (i < to && isHexDigit(s.charAt(i))) {
+                i++;
+                hexDigits++;
+            }
+        }
+        if (hexDigits == 0 || i >= to || (s.charAt(i) | 0x20) != 'p') return false;
+
+        i++;
+        if (i < to && (s.charAt(i) == '+' || s.charAt(i) == '-')) i++;
+        int expStart = i;
+        while (i < to && isDigit(s.charAt(i))) i++;
+        return i > expStart && isEndOrSuffix(s, i, to);
+    }
+
+    // Редкий случай (длинная мантисса, большой показатель, hex): строка уже признана числом
+    private static double parseSlow(CharSequence s, int from, int to) {
+        return Double.parseDouble(s.subSequence(from, to).toString());
+    }
+
+    private static boolean setDouble(ParsedValue out, double value) {
+        if (out != null) {
+            out.setDoubleValue(value);
+        }
+        return true;
+    }
+
+    private static boolean isEndOrSuffix(CharSequence s, int i, int to) {
+        if (i == to) return true;
+        if (i != to - 1) return false;
+        char c = s.charAt(i);
+        return c == 'f' || c == 'F' || c == 'd' || c == 'D';
+    }
+
+    private static boolean matchesToEnd(CharSequence s, int i, int to, String word) {
+        if (to - i != word.length()) return false;
+        for (int k = 0; k < word.length(); k++) {
+            if (s.charAt(i + k) != word.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHexDigit(char c) {
+        return isDigit(c) || ((c | 0x20) >= 'a' && (c | 0x20) <= 'f');
     }
 }
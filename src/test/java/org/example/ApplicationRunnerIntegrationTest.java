@@ -3,9 +3,12 @@ package org.example;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
@@ -467,4 +470,69 @@ class ApplicationRunnerIntegrationTest {
         assertEquals(expected + "\n", actual);
     }
 
-}
\ No newline at end of file
+
+    @Test
+    void shouldReportMostFrequentStrings(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("words.txt");
+        Files.write(input, List.of("b", "a", "b", "c", "b", "a", "42"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(out));
+        int exitCode = new ApplicationRunner().run(new String[]{"-f", "--top", "2", input.toString()});
+        System.setOut(originalOut);
+
+        assertEquals(0, exitCode);
+        String consoleOutput = out.toString().replace("\r\n", "\n");
+        assertTrue(consoleOutput.contains("  top 2:\n    b: 3\n    a: 2\n"), consoleOutput);
+    }
+
+    @Test
+    void shouldPrintMetricsJsonToStdErr(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("data.txt");
+        Files.write(input, List.of("1", "2.5", "text"));
+
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        PrintStream originalErr = System.err;
+        System.setErr(new PrintStream(err));
+        int exitCode = new ApplicationRunner().run(new String[]{"-s", "--metrics", input.toString()});
+        System.setErr(originalErr);
+
+        assertEquals(0, exitCode);
+        String json = err.toString().trim();
+        assertTrue(json.startsWith("{") && json.endsWith("}"), json);
+        assertTrue(json.contains("\"linesRead\": 3"), json);
+        assertTrue(json.contains("\"linesByType\": {\"FLOAT\": 1, \"INTEGER\": 1, \"STRING\": 1}"), json);
+    }
+
+    @Test
+    void shouldFilterStdinToStdout(@TempDir Path tempDir) throws Exception {
+        String input = String.join(System.lineSeparator(), "1", "2.5", "text", "42", "");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        InputStream originalIn = System.in;
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+        System.setErr(new PrintStream(err, true, StandardCharsets.UTF_8));
+        int exitCode;
+        try {
+            exitCode = new ApplicationRunner().run(new String[]{
+                    "-s", "-o", tempDir.toString(), "--stdout", "integers", "-"});
+        } finally {
+            System.setIn(originalIn);
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+        }
+
+        assertEquals(0, exitCode);
+        // В stdout только строки выбранного типа, статистика и служебный вывод — в stderr
+        assertEquals("1" + System.lineSeparator() + "42" + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("Всего элементов: 4"));
+        assertFalse(Files.exists(tempDir.resolve("integers.txt")));
+        assertEqualsFileContent("2.5", tempDir.resolve("floats.txt"));
+        assertEqualsFileContent("text", tempDir.resolve("strings.txt"));
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.cli;
 
 import org.example.dto.FilterConfig;
+import org.example.model.DataType;
 import org.apache.commons.cli.ParseException;
 import org.junit.jupiter.api.Test;
 
@@ -118,5 +119,132 @@ class ArgsParserTest {
         assertThrows(ParseException.class, () -> ArgsParser.parse(args),
                 "Parsing unknown option should throw ParseException");
     }
-}
 
+    @Test
+    void parse_Threads_ShouldSetWorkerCount() throws ParseException {
+        FilterConfig config = ArgsParser.parse(new String[]{"--threads", "8", "a.txt", "b.txt"});
+
+        assertEquals(8, config.threads());
+        assertEquals(1, ArgsParser.parse(new String[]{"a.txt"}).threads(), "Sequential mode by default");
+    }
+
+    @Test
+    void parse_InvalidThreads_ShouldThrowIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> ArgsParser.parse(new String[]{"--threads", "0", "a.txt"}));
+        assertThrows(IllegalArgumentException.class, () -> ArgsParser.parse(new String[]{"--threads", "x", "a.txt"}));
+    }
+
+    @Test
+    void parse_Mmap_ShouldEnableMappedInput() throws ParseException {
+        assertTrue(ArgsParser.parse(new String[]{"--mmap", "a.txt"}).mappedInput());
+        assertFalse(ArgsParser.parse(new String[]{"a.txt"}).mappedInput());
+    }
+
+    @Test
+    void parse_Pipeline_ShouldEnablePipelinedMode() throws ParseException {
+        assertTrue(ArgsParser.parse(new String[]{"--pipeline", "a.txt"}).pipelined());
+        assertFalse(ArgsParser.parse(new String[]{"a.txt"}).pipelined());
+    }
+
+    @Test
+    void parse_WriteBuffer_ShouldSetBufferSize() throws ParseException {
+        assertEquals(4096, ArgsParser.parse(new String[]{"--write-buffer", "4096", "a.txt"}).writeBufferSize());
+        assertEquals(0, ArgsParser.parse(new String[]{"a.txt"}).writeBufferSize(), "Default buffer size");
+    }
+
+    @Test
+    void parse_Cumulative_ShouldEnableCumulativeStats() throws ParseException {
+        assertTrue(ArgsParser.parse(new String[]{"--cumulative", "-a", "a.txt"}).cumulativeStats());
+        assertFalse(ArgsParser.parse(new String[]{"a.txt"}).cumulativeStats());
+    }
+
+    @Test
+    void parse_BigIntegers_ShouldEnableBigIntegerClassification() throws ParseException {
+        assertTrue(ArgsParser.parse(new String[]{"--big-integers", "a.txt"}).bigIntegers());
+        assertFalse(ArgsParser.parse(new String[]{"a.txt"}).bigIntegers());
+    }
+
+    @Test
+    void parse_Distinct_ShouldEnableDistinctCounts() throws ParseException {
+        assertTrue(ArgsParser.parse(new String[]{"-f", "--distinct", "a.txt"}).distinctCounts());
+        assertFalse(ArgsParser.parse(new String[]{"a.txt"}).distinctCounts());
+    }
+
+    @Test
+    void parse_Top_ShouldSetTopStrings() throws ParseException {
+        assertEquals(5, ArgsParser.parse(new String[]{"--top", "5", "a.txt"}).topStrings());
+        assertEquals(0, ArgsParser.parse(new String[]{"a.txt"}).topStrings());
+        assertThrows(IllegalArgumentException.class, () -> ArgsParser.parse(new String[]{"--top", "0", "a.txt"}));
+    }
+
+    @Test
+    void parse_Metrics_ShouldEnableMetrics() throws ParseException {
+        assertTrue(ArgsParser.parse(new String[]{"--metrics", "a.txt"}).metrics());
+        assertFalse(ArgsParser.parse(new String[]{"a.txt"}).metrics());
+    }
+
+    @Test
+    void parse_Progress_ShouldEnableProgress() throws ParseException {
+        assertTrue(ArgsParser.parse(new String[]{"--progress", "a.txt"}).progress());
+        assertFalse(ArgsParser.parse(new String[]{"a.txt"}).progress());
+    }
+
+    @Test
+    void parse_Gzip_ShouldSetLevel() throws ParseException {
+        assertEquals(6, ArgsParser.parse(new String[]{"--gzip", "a.txt"}).gzipLevel());
+        assertEquals(9, ArgsParser.parse(new String[]{"--gzip-level", "9", "a.txt"}).gzipLevel());
+        assertEquals(0, ArgsParser.parse(new String[]{"a.txt"}).gzipLevel());
+        assertThrows(IllegalArgumentException.class, () -> ArgsParser.parse(new String[]{"--gzip-level", "10", "a.txt"}));
+    }
+
+    @Test
+    void parse_StdinAndStdout_ShouldBeAccepted() throws ParseException {
+        FilterConfig config = ArgsParser.parse(new String[]{"--stdout", "floats", "-"});
+        assertEquals(List.of(Path.of("-")), config.inputFiles());
+        assertEquals(DataType.FLOAT, config.stdoutType());
+        assertNull(ArgsParser.parse(new String[]{"a.txt"}).stdoutType());
+        assertThrows(IllegalArgumentException.class, () -> ArgsParser.parse(new String[]{"--stdout", "dates", "a.txt"}));
+    }
+
+    @Test
+    void parse_Follow_ShouldBeSet() throws ParseException {
+        assertTrue(ArgsParser.parse(new String[]{"--follow", "a.txt"}).follow());
+        assertFalse(ArgsParser.parse(new String[]{"a.txt"}).follow());
+    }
+
+    @Test
+    void parse_Resume_ShouldImplyCheckpoints() throws ParseException {
+        FilterConfig config = ArgsParser.parse(new String[]{"--resume", "a.txt"});
+        assertTrue(config.resume());
+        assertTrue(config.checkpoints());
+        assertFalse(ArgsParser.parse(new String[]{"a.txt"}).checkpoints());
+    }
+
+    @Test
+    void parse_CheckpointWithNonSequentialInput_ShouldThrow() {
+        for (String option : List.of("--checkpoint", "--resume")) {
+            assertThrows(IllegalArgumentException.class, () -> ArgsParser.parse(new String[]{option, "--threads", "2", "a.txt"}));
+            assertThrows(IllegalArgumentException.class, () -> ArgsParser.parse(new String[]{option, "--pipeline", "a.txt"}));
+            assertThrows(IllegalArgumentException.class, () -> ArgsParser.parse(new String[]{option, "--mmap", "a.txt"}));
+            assertThrows(IllegalArgumentException.class, () -> ArgsParser.parse(new String[]{option, "--stdout", "integers", "a.txt"}));
+            assertThrows(IllegalArgumentException.class, () -> ArgsParser.parse(new String[]{option, "-"}));
+        }
+    }
+
+    @Test
+    void parse_FollowWithCheckpoint_ShouldAllowMmap() throws ParseException {
+        assertTrue(ArgsParser.parse(new String[]{"--follow", "--checkpoint", "--mmap", "a.txt"}).follow());
+    }
+
+    @Test
+    void parse_typesEnablesRegistryTypesForOutputAndStdout() throws ParseException {
+        FilterConfig config = ArgsParser.parse(new String[]{"--types", "ipv4, dates,ipv4", "--stdout", "dates", "a.txt"});
+
+        assertEquals(List.of(DataType.DATE, DataType.IPV4), config.patternTypes());
+        assertEquals(DataType.DATE, config.stdoutType());
+        assertEquals(List.of(), ArgsParser.parse(new String[]{"a.txt"}).patternTypes());
+        assertThrows(IllegalArgumentException.class, () -> ArgsParser.parse(new String[]{"--types", "emails", "a.txt"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> ArgsParser.parse(new String[]{"--types", "hex", "--stdout", "dates", "a.txt"}));
+    }
+}
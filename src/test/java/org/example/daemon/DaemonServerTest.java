@@ -0,0 +1,104 @@
+package org.example.daemon;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DaemonServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path socket;
+    private DaemonServer server;
+    private CompletableFuture<Void> serving;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        socket = tempDir.resolve("d.sock");
+        server = new DaemonServer(socket, 2);
+        serving = CompletableFuture.runAsync(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @AfterEach
+    void stopServer() throws Exception {
+        server.close();
+        serving.get(10, TimeUnit.SECONDS);
+    }
+
+    // Задание от имени клиента, запущенного в tempDir; [0] — stdout, [1] — stderr, [2] — код
+    private String[] submit(String... args) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = DaemonClient.run(socket, args, tempDir, out, err);
+        return new String[]{out.toString(StandardCharsets.UTF_8), err.toString(StandardCharsets.UTF_8),
+                Integer.toString(exitCode)};
+    }
+
+    @Test
+    void jobs_resolvePathsAgainstClientDirectoryAndStartWithFreshStatistics() throws IOException {
+        Files.writeString(tempDir.resolve("first.txt"), "1\n2\nabc\n");
+        Files.writeString(tempDir.resolve("second.txt"), "3.5\n");
+
+        String[] first = submit("-s", "-p", "a_", "first.txt");
+        String[] second = submit("-s", "-p", "b_", "second.txt");
+
+        assertEquals("0", first[2], first[1]);
+        assertTrue(first[0].contains("Всего элементов: 3 (int: 2, float: 0, string: 1)"), first[0]);
+        assertEquals("0", second[2], second[1]);
+        assertTrue(second[0].contains("Всего элементов: 1 (int: 0, float: 1, string: 0)"), second[0]);
+        assertEquals(List.of("1", "2"), Files.readAllLines(tempDir.resolve("a_integers.txt")));
+        assertEquals(List.of("3.5"), Files.readAllLines(tempDir.resolve("b_floats.txt")));
+    }
+
+    @Test
+    void jobs_reportErrorsWithExitCodes() throws IOException {
+        String[] follow = submit("--follow", "log.txt");
+        assertEquals("1", follow[2]);
+        assertTrue(follow[1].contains("--follow is not supported in daemon mode"), follow[1]);
+
+        String[] badThreads = submit("--threads", "zero", "log.txt");
+        assertEquals("1", badThreads[2]);
+        assertTrue(badThreads[1].startsWith("Argument error"), badThreads[1]);
+    }
+
+    @Test
+    void jobs_sendWriteErrorsToClientStderr() throws IOException {
+        Files.writeString(tempDir.resolve("input.txt"), "1\nabc\n");
+        // Каталог на месте выходного файла: открыть его для записи нельзя
+        Files.createDirectory(tempDir.resolve("e_integers.txt"));
+
+        String[] job = submit("-p", "e_", "input.txt");
+
+        assertTrue(job[1].contains("Ошибка записи в файл для INTEGER"), job[1]);
+        assertTrue(job[0].contains("e_strings.txt"), job[0]);
+        assertEquals(List.of("abc"), Files.readAllLines(tempDir.resolve("e_strings.txt")));
+    }
+
+    @Test
+    void close_removesSocketFile() throws Exception {
+        assertTrue(Files.exists(socket));
+        stopServer();
+        assertFalse(Files.exists(socket));
+        assertThrows(IOException.class, () -> submit("log.txt"));
+    }
+}
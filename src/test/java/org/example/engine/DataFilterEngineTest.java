@@ -2,18 +2,31 @@ package org.example.engine;
 
 import org.example.dto.FilterConfig;
 import org.example.model.DataType;
+import org.example.model.RunMetrics;
 import org.example.model.TotalStats;
+import org.example.util.Checkpoint;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -80,7 +93,7 @@ class DataFilterEngineTest {
         }
 
         String logs = outContent.toString(StandardCharsets.UTF_8.name());
-        assertTrue(logs.contains("BufferedWriter@"), "Expected writer creation log in stdout, but got: " + logs);
+        assertTrue(logs.contains("test_integers.txt"), "Expected writer creation log in stdout, but got: " + logs);
     }
 
     @Test
@@ -176,8 +189,586 @@ class DataFilterEngineTest {
         assertEquals(4, stats.getIntegerStatistic().getTypeCnt());
         assertEquals(10, stats.getIntegerStatistic().getMin());
         assertEquals(40, stats.getIntegerStatistic().getMax());
-        assertEquals(100, stats.getIntegerStatistic().getSum());
+        assertEquals(BigInteger.valueOf(100), stats.getIntegerStatistic().getSum());
 
         assertEquals("10203040", readOutputFile("integers.txt").replaceAll("\\R", ""));
     }
+
+    @Test
+    void process_parallelModeKeepsFileThenLineOrder() throws IOException {
+        Path[] files = new Path[8];
+        for (int i = 0; i < files.length; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int line = 0; line < 1000; line++) {
+                content.append(i * 1000 + line).append('\n')
+                        .append(i).append('.').append(line).append('\n')
+                        .append("s").append(i).append('_').append(line).append('\n');
+            }
+            files[i] = createTempFile("part" + i + ".txt", content.toString());
+        }
+
+        DataFilterEngine sequential = new DataFilterEngine();
+        sequential.process(createConfig(files));
+        String expectedIntegers = readOutputFile("integers.txt");
+        String expectedFloats = readOutputFile("floats.txt");
+        String expectedStrings = readOutputFile("strings.txt");
+
+        DataFilterEngine parallel = new DataFilterEngine();
+        parallel.process(createConfig(files).toBuilder().threads(4).build());
+
+        assertEquals(expectedIntegers, readOutputFile("integers.txt"));
+        assertEquals(expectedFloats, readOutputFile("floats.txt"));
+        assertEquals(expectedStrings, readOutputFile("strings.txt"));
+
+        TotalStats stats = parallel.getTotalStats();
+        assertEquals(8000, stats.getIntegerStatistic().getTypeCnt());
+        assertEquals(0, stats.getIntegerStatistic().getMin());
+        assertEquals(7999, stats.getIntegerStatistic().getMax());
+        assertEquals(sequential.getTotalStats().getIntegerStatistic().getSum(), stats.getIntegerStatistic().getSum());
+        assertEquals(8000, stats.getFloatStatistic().getTypeCnt());
+        assertEquals(8000, stats.getStringStatistic().getTypeCnt());
+        try (var leftovers = Files.list(tempDir)) {
+            assertTrue(leftovers.noneMatch(p -> p.getFileName().toString().startsWith(".parts")),
+                    "Temporary part directory must be removed");
+        }
+    }
+
+    @Test
+    void process_parallelModePropagatesMissingFile() throws IOException {
+        Path file = createTempFile("ok.txt", "1\n");
+        Path invalidFile = tempDir.resolve("non_existent.txt");
+        FilterConfig config = createConfig(file, invalidFile).toBuilder().threads(2).build();
+
+        assertThrows(RuntimeException.class, () -> new DataFilterEngine().process(config));
+    }
+
+    @Test
+    void process_splitsLargeFileIntoChunksKeepingOrder() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int line = 0; line < 5000; line++) {
+            content.append(line - 2500).append('\n')
+                    .append(line).append(".25\r\n")
+                    .append("строка ").append(line).append('\r')
+                    .append(line % 7 == 0 ? "١٢" : "").append('\n');
+        }
+        content.append("tail-without-newline");
+        Path file = createTempFile("large.txt", content.toString());
+
+        DataFilterEngine sequential = new DataFilterEngine();
+        sequential.process(createConfig(file));
+        String expectedIntegers = readOutputFile("integers.txt");
+        String expectedFloats = readOutputFile("floats.txt");
+        String expectedStrings = readOutputFile("strings.txt");
+
+        DataFilterEngine chunked = new DataFilterEngine();
+        chunked.setChunkSize(1000);
+        chunked.process(createConfig(file).toBuilder().threads(4).build());
+
+        assertEquals(expectedIntegers, readOutputFile("integers.txt"));
+        assertEquals(expectedFloats, readOutputFile("floats.txt"));
+        assertEquals(expectedStrings, readOutputFile("strings.txt"));
+
+        TotalStats expected = sequential.getTotalStats();
+        TotalStats actual = chunked.getTotalStats();
+        assertEquals(expected.getIntegerStatistic(), actual.getIntegerStatistic());
+        assertEquals(expected.getStringStatistic(), actual.getStringStatistic());
+        assertEquals(expected.getFloatStatistic().getTypeCnt(), actual.getFloatStatistic().getTypeCnt());
+        assertEquals(expected.getFloatStatistic().getSum(), actual.getFloatStatistic().getSum(), 1e-6);
+    }
+
+    @Test
+    void process_mappedInputMatchesBufferedReader() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int line = 0; line < 3000; line++) {
+            content.append(line).append("\r\n")
+                    .append("-").append(line).append(".5e1\n")
+                    .append("word").append(line).append(" ё\n");
+        }
+        content.append("9");
+        Path file = createTempFile("mapped.txt", content.toString());
+
+        DataFilterEngine reader = new DataFilterEngine();
+        reader.process(createConfig(file));
+        String expectedIntegers = readOutputFile("integers.txt");
+        String expectedFloats = readOutputFile("floats.txt");
+        String expectedStrings = readOutputFile("strings.txt");
+
+        for (int threads : new int[]{1, 3}) {
+            DataFilterEngine mapped = new DataFilterEngine();
+            mapped.setChunkSize(700);
+            mapped.process(createConfig(file).toBuilder().mappedInput(true).threads(threads).build());
+
+            assertEquals(expectedIntegers, readOutputFile("integers.txt"));
+            assertEquals(expectedFloats, readOutputFile("floats.txt"));
+            assertEquals(expectedStrings, readOutputFile("strings.txt"));
+            assertEquals(reader.getTotalStats().getIntegerStatistic(), mapped.getTotalStats().getIntegerStatistic());
+            assertEquals(reader.getTotalStats().getStringStatistic(), mapped.getTotalStats().getStringStatistic());
+        }
+    }
+
+    @Test
+    void process_mappedInputGrowsWindowForLongLines() throws IOException {
+        String longLine = "x".repeat(5000);
+        Path file = createTempFile("long.txt", "1\n" + longLine + "\n2\n");
+
+        DataFilterEngine engine = new DataFilterEngine();
+        engine.setChunkSize(64);
+        engine.process(createConfig(file).toBuilder().mappedInput(true).build());
+
+        assertEquals("12", readOutputFile("integers.txt").replaceAll("\\R", ""));
+        assertEquals(longLine, readOutputFile("strings.txt").replaceAll("\\R", ""));
+        assertEquals(5000, engine.getTotalStats().getStringStatistic().getMaxLen());
+    }
+
+    @Test
+    void process_passesNonAsciiLinesThroughUnchanged() throws IOException {
+        Path file = createTempFile("unicode.txt", "привет\n😀ab\n١٢\n-７\nmixed١x\n");
+        DataFilterEngine engine = new DataFilterEngine();
+        engine.process(createConfig(file));
+
+        TotalStats stats = engine.getTotalStats();
+        assertEquals(2, stats.getIntegerStatistic().getTypeCnt());
+        assertEquals(BigInteger.valueOf(12 - 7), stats.getIntegerStatistic().getSum());
+        assertEquals(3, stats.getStringStatistic().getTypeCnt());
+        assertEquals("😀ab".length(), stats.getStringStatistic().getMinLen());
+        assertEquals("mixed١x".length(), stats.getStringStatistic().getMaxLen());
+
+        assertEquals("привет\n😀ab\nmixed١x\n", readOutputFile("strings.txt").replace("\r\n", "\n"));
+        assertEquals("١٢\n-７\n", readOutputFile("integers.txt").replace("\r\n", "\n"));
+    }
+
+    @Test
+    void process_pipelinedModeMatchesSequential() throws IOException {
+        Path[] files = new Path[3];
+        for (int i = 0; i < files.length; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int line = 0; line < 2000; line++) {
+                content.append(line * (i + 1)).append('\n')
+                        .append(line).append(".125\n")
+                        .append("text ").append(i).append(' ').append(line).append('\n');
+            }
+            content.append("last").append(i);
+            files[i] = createTempFile("pipe" + i + ".txt", content.toString());
+        }
+
+        DataFilterEngine sequential = new DataFilterEngine();
+        sequential.process(createConfig(files));
+        String expectedIntegers = readOutputFile("integers.txt");
+        String expectedFloats = readOutputFile("floats.txt");
+        String expectedStrings = readOutputFile("strings.txt");
+
+        DataFilterEngine pipelined = new DataFilterEngine();
+        pipelined.setChunkSize(512);
+        pipelined.process(createConfig(files).toBuilder().pipelined(true).build());
+
+        assertEquals(expectedIntegers, readOutputFile("integers.txt"));
+        assertEquals(expectedFloats, readOutputFile("floats.txt"));
+        assertEquals(expectedStrings, readOutputFile("strings.txt"));
+        assertEquals(sequential.getTotalStats(), pipelined.getTotalStats());
+    }
+
+    @Test
+    void process_pipelinedModePropagatesMissingFile() throws IOException {
+        Path file = createTempFile("ok.txt", "1\n");
+        FilterConfig config = createConfig(file, tempDir.resolve("non_existent.txt")).toBuilder()
+                .pipelined(true)
+                .build();
+
+        assertThrows(RuntimeException.class, () -> new DataFilterEngine().process(config));
+    }
+
+    @Test
+    void process_accumulatesStatisticsInSidecarAcrossAppendRuns() throws IOException {
+        Path first = createTempFile("first.txt", "10\n1.5\nabc\n");
+        Path second = createTempFile("second.txt", "-4\nlonger text\n");
+
+        new DataFilterEngine().process(createConfig(first));
+        DataFilterEngine appended = new DataFilterEngine();
+        appended.process(createConfig(second).toBuilder().appendMode(true).build());
+
+        assertEquals(1, appended.getTotalStats().getIntegerStatistic().getTypeCnt());
+        TotalStats cumulative = appended.getCumulativeStats();
+        assertEquals(2, cumulative.getIntegerStatistic().getTypeCnt());
+        assertEquals(-4, cumulative.getIntegerStatistic().getMin());
+        assertEquals(BigInteger.valueOf(6), cumulative.getIntegerStatistic().getSum());
+        assertEquals(1, cumulative.getFloatStatistic().getTypeCnt());
+        assertEquals(2, cumulative.getStringStatistic().getTypeCnt());
+        assertEquals(11, cumulative.getStringStatistic().getMaxLen());
+        assertTrue(Files.exists(tempDir.resolve("test_stats.bin")));
+    }
+
+    @Test
+    void process_sidecarRestartsOnlyOverwrittenTypesWithoutAppend() throws IOException {
+        Path first = createTempFile("first.txt", "10\n1.5\n");
+        Path second = createTempFile("second.txt", "20\n");
+
+        new DataFilterEngine().process(createConfig(first));
+        DataFilterEngine overwrite = new DataFilterEngine();
+        overwrite.process(createConfig(second));
+
+        // integers.txt перезаписан, floats.txt остался от первого запуска
+        TotalStats cumulative = overwrite.getCumulativeStats();
+        assertEquals(1, cumulative.getIntegerStatistic().getTypeCnt());
+        assertEquals(BigInteger.valueOf(20), cumulative.getIntegerStatistic().getSum());
+        assertEquals(1, cumulative.getFloatStatistic().getTypeCnt());
+        assertEquals("1.5", readOutputFile("floats.txt").trim());
+    }
+
+    @Test
+    void process_distinctCountsMatchAcrossModes() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int line = 0; line < 6000; line++) {
+            content.append(line % 1500).append('\n')
+                    .append(line % 300).append(".5\n")
+                    .append("тест").append(line % 700).append('\n');
+        }
+        Path input = createTempFile("distinct.txt", content.toString());
+
+        DataFilterEngine sequential = new DataFilterEngine();
+        sequential.process(createConfig(input).toBuilder().distinctCounts(true).build());
+        DataFilterEngine chunked = new DataFilterEngine();
+        chunked.setChunkSize(4096);
+        chunked.process(createConfig(input).toBuilder().distinctCounts(true).threads(4).build());
+
+        TotalStats expected = sequential.getTotalStats();
+        assertEquals(1500, expected.getIntegerStatistic().getDistinctCount(), 15);
+        assertEquals(300, expected.getFloatStatistic().getDistinctCount(), 3);
+        assertEquals(700, expected.getStringStatistic().getDistinctCount(), 7);
+        TotalStats actual = chunked.getTotalStats();
+        assertEquals(expected.getIntegerStatistic().getDistinct(), actual.getIntegerStatistic().getDistinct());
+        assertEquals(expected.getFloatStatistic().getDistinct(), actual.getFloatStatistic().getDistinct());
+        assertEquals(expected.getStringStatistic().getDistinct(), actual.getStringStatistic().getDistinct());
+        assertEquals(-1, new DataFilterEngine().getTotalStats().getStringStatistic().getDistinctCount());
+    }
+
+    @Test
+    void process_collectsMetricsInEveryMode() throws IOException {
+        Path first = createTempFile("m1.txt", "1\n2.5\nabc\n");
+        Path second = createTempFile("m2.txt", "3\n4\n");
+        long firstSize = Files.size(first);
+
+        List<FilterConfig> configs = List.of(
+                createConfig(first, second).toBuilder().metrics(true).build(),
+                createConfig(first, second).toBuilder().metrics(true).mappedInput(true).build(),
+                createConfig(first, second).toBuilder().metrics(true).pipelined(true).build(),
+                createConfig(first, second).toBuilder().metrics(true).threads(2).build());
+        for (FilterConfig config : configs) {
+            DataFilterEngine engine = new DataFilterEngine();
+            engine.process(config);
+
+            RunMetrics metrics = engine.getMetrics();
+            assertEquals(5, metrics.getLinesRead(), config::toString);
+            assertEquals(firstSize + Files.size(second), metrics.getBytesRead(), config::toString);
+            assertEquals(3, metrics.getLines(DataType.INTEGER));
+            assertEquals(1, metrics.getLines(DataType.FLOAT));
+            assertEquals(1, metrics.getLines(DataType.STRING));
+            assertTrue(metrics.getFileOpens() >= 3);
+            // Части параллельного режима считаются один раз — при сбросе во временный файл
+            long outputSize = Files.size(tempDir.resolve("test_integers.txt"))
+                    + Files.size(tempDir.resolve("test_floats.txt"))
+                    + Files.size(tempDir.resolve("test_strings.txt"));
+            assertEquals(outputSize, metrics.getBytesWritten(), config::toString);
+            assertTrue(metrics.toJson().contains("\"lines\": 3}"), metrics::toJson);
+        }
+
+        DataFilterEngine withoutMetrics = new DataFilterEngine();
+        withoutMetrics.process(createConfig(first));
+        assertNull(withoutMetrics.getMetrics());
+    }
+
+    @Test
+    void process_reportsProgressInEveryMode() throws IOException {
+        Path first = createTempFile("p1.txt", "1\n2.5\nabc\n");
+        Path second = createTempFile("p2.txt", "3\n4\n");
+        long totalSize = Files.size(first) + Files.size(second);
+
+        List<FilterConfig> configs = List.of(
+                createConfig(first, second).toBuilder().progress(true).build(),
+                createConfig(first, second).toBuilder().progress(true).mappedInput(true).build(),
+                createConfig(first, second).toBuilder().progress(true).pipelined(true).build(),
+                createConfig(first, second).toBuilder().progress(true).threads(2).build());
+        PrintStream originalErr = System.err;
+        try {
+            for (FilterConfig config : configs) {
+                ByteArrayOutputStream err = new ByteArrayOutputStream();
+                System.setErr(new PrintStream(err, true, StandardCharsets.UTF_8));
+                DataFilterEngine engine = new DataFilterEngine();
+                // Маленькие чанки, чтобы первый файл в параллельном режиме резался на части
+                engine.setChunkSize(4);
+                engine.process(config);
+
+                RunMetrics metrics = engine.getMetrics();
+                assertFalse(metrics.isTimed());
+                assertEquals(totalSize, metrics.getBytesProcessed(), config::toString);
+                assertEquals(5, metrics.getLinesProcessed(), config::toString);
+                String report = err.toString(StandardCharsets.UTF_8);
+                assertTrue(report.contains("Progress: 100.0%"), report);
+                assertTrue(report.contains("5 lines"), report);
+            }
+        } finally {
+            System.setErr(originalErr);
+        }
+    }
+
+    @Test
+    void process_gzipInput_isDecompressedInEveryMode() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            text.append(i).append('\n').append(i / 4.0).append('\n').append("line ").append(i).append('\n');
+        }
+        Path plain = createTempFile("plain.txt", text.toString());
+        // Два члена, как после конкатенации сжатых файлов
+        Path gzip = tempDir.resolve("data.gz");
+        int half = text.indexOf("\n", text.length() / 2) + 1;
+        try (OutputStream out = Files.newOutputStream(gzip)) {
+            for (String part : List.of(text.substring(0, half), text.substring(half))) {
+                try (GZIPOutputStream member = new GZIPOutputStream(new FilterOutputStream(out) {
+                    @Override
+                    public void close() {
+                        // внешний поток закрывается после последнего члена
+                    }
+                })) {
+                    member.write(part.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        DataFilterEngine reference = new DataFilterEngine();
+        reference.process(createConfig(plain).toBuilder().filePrefix("plain_").build());
+        List<FilterConfig> configs = List.of(
+                createConfig(gzip),
+                createConfig(gzip).toBuilder().mappedInput(true).build(),
+                createConfig(gzip).toBuilder().pipelined(true).build(),
+                createConfig(gzip, gzip).toBuilder().threads(2).build());
+        for (FilterConfig config : configs) {
+            DataFilterEngine engine = new DataFilterEngine();
+            engine.setChunkSize(1024);
+            engine.process(config);
+
+            long copies = config.inputFiles().size();
+            assertEquals(3000 * copies, engine.getTotalStats().getIntegerStatistic().getTypeCnt(), config::toString);
+            assertEquals(3000 * copies, engine.getTotalStats().getStringStatistic().getTypeCnt(), config::toString);
+            if (copies == 1) {
+                assertEquals(Files.readString(tempDir.resolve("plain_floats.txt")),
+                        Files.readString(tempDir.resolve("test_floats.txt")), config::toString);
+            }
+        }
+    }
+
+    @Test
+    void process_multiSegmentGzipInput_isInflatedInParallelSegments() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 110_000; i++) {
+            text.append(i).append('\n').append(i / 8.0).append('\n').append("row ").append(i).append('\n');
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        Path plain = tempDir.resolve("big.txt");
+        Files.write(plain, bytes);
+        // Больше двух сегментов по 1 МБ: без сжатия (уровень 0), членами по 256 КБ, как у pigz
+        Path gzip = tempDir.resolve("big.gz");
+        try (OutputStream out = Files.newOutputStream(gzip)) {
+            for (int from = 0; from < bytes.length; from += 256 * 1024) {
+                int to = Math.min(bytes.length, from + 256 * 1024);
+                try (GZIPOutputStream member = new GZIPOutputStream(new FilterOutputStream(out) {
+                    @Override
+                    public void close() {
+                        // внешний поток закрывается после последнего члена
+                    }
+                }) {{ def.setLevel(Deflater.NO_COMPRESSION); }}) {
+                    member.write(bytes, from, to - from);
+                }
+            }
+        }
+        assertTrue(Files.size(gzip) > 2 * 1024 * 1024);
+
+        new DataFilterEngine().process(createConfig(plain).toBuilder().filePrefix("plain_").build());
+        for (FilterConfig config : List.of(createConfig(gzip), createConfig(gzip).toBuilder().pipelined(true).build())) {
+            DataFilterEngine engine = new DataFilterEngine();
+            // Параллельная распаковка и на машине с одним ядром
+            engine.setInflateThreads(4);
+            engine.process(config);
+
+            assertEquals(110_000, engine.getTotalStats().getFloatStatistic().getTypeCnt(), config::toString);
+            for (String name : List.of("integers.txt", "floats.txt", "strings.txt")) {
+                assertEquals(Files.readString(tempDir.resolve("plain_" + name)),
+                        Files.readString(tempDir.resolve("test_" + name)), name);
+            }
+        }
+    }
+
+    @Test
+    void process_gzipOutputMatchesPlainOutputInParallelMode() throws IOException {
+        Path first = createTempFile("g1.txt", "1\n2.5\nabc\n".repeat(500));
+        Path second = createTempFile("g2.txt", "3\nxyz\n".repeat(500));
+
+        new DataFilterEngine().process(createConfig(first, second).toBuilder().filePrefix("plain_").build());
+        DataFilterEngine engine = new DataFilterEngine();
+        engine.setChunkSize(1024);
+        engine.process(createConfig(first, second).toBuilder().threads(2).gzipLevel(3).build());
+
+        for (String name : List.of("integers.txt", "floats.txt", "strings.txt")) {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(tempDir.resolve("test_" + name + ".gz")))) {
+                assertEquals(Files.readString(tempDir.resolve("plain_" + name)),
+                        new String(in.readAllBytes(), StandardCharsets.UTF_8), name);
+            }
+        }
+    }
+
+    // Запускает --follow в отдельном потоке; остановка — через engine.stop()
+    private static CompletableFuture<Void> startFollowing(DataFilterEngine engine, FilterConfig config) {
+        engine.setPollIntervalMillis(10);
+        engine.setCheckpointIntervalMillis(0);
+        return CompletableFuture.runAsync(() -> {
+            try {
+                engine.process(config);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void awaitOutputLines(String filename, int count) throws Exception {
+        Path output = tempDir.resolve("test_" + filename);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!Files.exists(output) || Files.readAllLines(output).size() < count) {
+            assertTrue(System.nanoTime() < deadline, "no " + count + " lines in " + filename);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void process_followPicksUpAppendedLinesAndContinuesFromCheckpoint() throws Exception {
+        Path file = createTempFile("growing.txt", "1\nabc\n2.5");
+        FilterConfig config = createConfig(file).toBuilder().follow(true).build();
+
+        DataFilterEngine engine = new DataFilterEngine();
+        CompletableFuture<Void> run = startFollowing(engine, config);
+        awaitOutputLines("integers.txt", 1);
+        // Недописанная строка "2.5" ждёт перевода строки
+        assertFalse(Files.exists(tempDir.resolve("test_floats.txt")));
+        Files.writeString(file, "\n7\n", StandardOpenOption.APPEND);
+        awaitOutputLines("integers.txt", 2);
+        engine.stop();
+        run.get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of("1", "7"), Files.readAllLines(tempDir.resolve("test_integers.txt")));
+        assertEquals(List.of("2.5"), Files.readAllLines(tempDir.resolve("test_floats.txt")));
+        assertEquals(4, engine.getTotalStats().getTotalCount());
+        assertEquals(Files.size(file), Checkpoint.load(Checkpoint.path(config)).offsetOf(file));
+
+        // Следующий запуск читает только дописанное и дописывает выходы
+        Files.writeString(file, "8\n", StandardOpenOption.APPEND);
+        DataFilterEngine next = new DataFilterEngine();
+        run = startFollowing(next, config);
+        awaitOutputLines("integers.txt", 3);
+        next.stop();
+        run.get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of("1", "7", "8"), Files.readAllLines(tempDir.resolve("test_integers.txt")));
+        assertEquals(1, next.getTotalStats().getTotalCount());
+        assertEquals(3, next.getCumulativeStats().getIntegerStatistic().getTypeCnt());
+    }
+
+    @Test
+    void process_followFinishesRotatedFileAndSwitchesToNewOne() throws Exception {
+        Path file = createTempFile("rotated.txt", "1\n");
+        FilterConfig config = createConfig(file).toBuilder().follow(true).build();
+        DataFilterEngine engine = new DataFilterEngine();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        engine.setErr(new PrintStream(err, true, StandardCharsets.UTF_8));
+
+        CompletableFuture<Void> run = startFollowing(engine, config);
+        awaitOutputLines("integers.txt", 1);
+        // Ротация: старый файл переименован и ещё дописывается, под прежним именем — новый
+        Path rotated = tempDir.resolve("rotated.txt.1");
+        Files.move(file, rotated);
+        Files.writeString(rotated, "2\n", StandardOpenOption.APPEND);
+        Files.writeString(file, "3\n");
+        awaitOutputLines("integers.txt", 3);
+        engine.stop();
+        run.get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of("1", "2", "3"), Files.readAllLines(tempDir.resolve("test_integers.txt")));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("пересоздан"), err.toString(StandardCharsets.UTF_8));
+        assertEquals(Files.size(file), Checkpoint.load(Checkpoint.path(config)).offsetOf(file));
+    }
+
+    @Test
+    void process_followAfterCrashTruncatesOutputsToCheckpoint() throws Exception {
+        Path file = createTempFile("crashed.txt", "1\n2\n");
+        Path head = createTempFile("head.txt", "1\n");
+        DataFilterEngine first = new DataFilterEngine();
+        first.process(createConfig(head));
+        FilterConfig config = createConfig(file).toBuilder().follow(true).build();
+        // Точка сохранена после строки "1", а "2" успела попасть в выход до аварии
+        Path integers = tempDir.resolve("test_integers.txt");
+        long[] lengths = {-1, -1, -1};
+        lengths[DataType.INTEGER.ordinal()] = Files.size(integers);
+        Files.writeString(integers, "2" + System.lineSeparator(), StandardOpenOption.APPEND);
+        new Checkpoint(false, List.of(new Checkpoint.InputPosition(file, 2)), lengths, first.getTotalStats())
+                .save(Checkpoint.path(config));
+
+        DataFilterEngine engine = new DataFilterEngine();
+        CompletableFuture<Void> run = startFollowing(engine, config);
+        Thread.sleep(50);
+        engine.stop();
+        run.get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of("1", "2"), Files.readAllLines(integers));
+        assertEquals(2, engine.getCumulativeStats().getIntegerStatistic().getTypeCnt());
+    }
+
+    @Test
+    void process_resumeAfterFailureMatchesUninterruptedRun() throws IOException {
+        Path first = createTempFile("r1.txt", "1\n2.5\nabc\n".repeat(200));
+        Path second = tempDir.resolve("r2.txt");
+        FilterConfig config = createConfig(first, second).toBuilder().checkpoints(true).build();
+        assertThrows(IOException.class, () -> new DataFilterEngine().process(config.toBuilder().resume(true).build()));
+
+        // Второго файла ещё нет — запуск обрывается после первого
+        DataFilterEngine engine = new DataFilterEngine();
+        engine.setChunkSize(64);
+        engine.setCheckpointIntervalMillis(0);
+        assertThrows(IOException.class, () -> engine.process(config));
+        assertTrue(Files.exists(Checkpoint.path(config)));
+        // Строка, записанная после последней контрольной точки, при продолжении отбрасывается
+        Files.writeString(tempDir.resolve("test_integers.txt"), "999" + System.lineSeparator(), StandardOpenOption.APPEND);
+
+        Files.writeString(second, "3\nxyz\n".repeat(100));
+        DataFilterEngine resumed = new DataFilterEngine();
+        resumed.setChunkSize(64);
+        resumed.process(config.toBuilder().resume(true).build());
+        DataFilterEngine clean = new DataFilterEngine();
+        clean.process(createConfig(first, second).toBuilder().filePrefix("plain_").build());
+
+        for (String name : List.of("integers.txt", "floats.txt", "strings.txt")) {
+            assertEquals(Files.readString(tempDir.resolve("plain_" + name)), readOutputFile(name), name);
+        }
+        assertEquals(clean.getTotalStats().getTotalCount(), resumed.getCumulativeStats().getTotalCount());
+        assertFalse(Files.exists(Checkpoint.path(config)));
+    }
+
+    @Test
+    void process_routesEnabledPatternTypesToOwnFilesInAnyMode() throws IOException {
+        Path file = createTempFile("mixed.txt",
+                "2024-05-01\n10.0.0.1\n0xFF\n42\n2024-5-1\nnote\n1999-12-31\n");
+        FilterConfig config = createConfig(file).toBuilder()
+                .patternTypes(List.of(DataType.DATE, DataType.HEX, DataType.IPV4))
+                .build();
+
+        for (FilterConfig mode : List.of(config, config.toBuilder().threads(3).build(),
+                config.toBuilder().pipelined(true).build())) {
+            DataFilterEngine engine = new DataFilterEngine();
+            engine.process(mode);
+
+            assertEquals(List.of("2024-05-01", "1999-12-31"), Files.readAllLines(tempDir.resolve("test_dates.txt")));
+            assertEquals(List.of("10.0.0.1"), Files.readAllLines(tempDir.resolve("test_ipv4.txt")));
+            assertEquals(List.of("0xFF"), Files.readAllLines(tempDir.resolve("test_hex.txt")));
+            assertEquals(List.of("42"), Files.readAllLines(tempDir.resolve("test_integers.txt")));
+            assertEquals(List.of("2024-5-1", "note"), Files.readAllLines(tempDir.resolve("test_strings.txt")));
+            assertFalse(Files.exists(tempDir.resolve("test_uuids.txt")));
+            assertEquals("1999-12-31", engine.getTotalStats().getPatternStatistic(DataType.DATE).getMin());
+            assertEquals(7, engine.getTotalStats().getTotalCount());
+        }
+    }
 }
@@ -8,9 +8,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -176,6 +179,62 @@ class FileWriterTest {
         assertFileContent("strings.txt", expected);
     }
 
+    @Test
+    void writeAll_writesBatchThroughSmallBuffer() throws IOException {
+        // Arrange: буфер меньше данных, чтобы сработали и сброс, и прямая запись
+        FilterConfig config = createConfig("").toBuilder().writeBufferSize(16).build();
+        fileWriter = new FileWriter(config);
+        List<String> batch = List.of("first", "второй", "x".repeat(40), "");
+        byte[] raw = ("raw1\n" + "y".repeat(30) + "\n").getBytes();
+
+        // Act
+        fileWriter.writeAll(DataType.STRING, batch);
+        fileWriter.write(DataType.STRING, raw, 0, raw.length);
+        fileWriter.write(DataType.STRING, "tail");
+        fileWriter.close();
+
+        // Assert
+        assertFileContent("strings.txt",
+                "first\nвторой\n" + "x".repeat(40) + "\n\nraw1\n" + "y".repeat(30) + "\ntail\n");
+    }
+
+    @Test
+    void write_gzipOutputIsCompressedInBlocksAndAppendedAsMembers() throws IOException {
+        FilterConfig config = createConfig("").toBuilder().gzipLevel(1).writeBufferSize(256).build();
+        StringBuilder expected = new StringBuilder();
+        fileWriter = new FileWriter(config);
+        for (int i = 0; i < 2000; i++) {
+            fileWriter.write(DataType.STRING, "line " + i);
+            expected.append("line ").append(i).append(System.lineSeparator());
+        }
+        fileWriter.close();
+
+        // Дописывание добавляет новые члены к существующему файлу
+        fileWriter = new FileWriter(config.toBuilder().appendMode(true).build());
+        fileWriter.write(DataType.STRING, "appended");
+        fileWriter.close();
+        expected.append("appended").append(System.lineSeparator());
+
+        Path file = tempDir.resolve("strings.txt.gz");
+        assertFalse(Files.exists(tempDir.resolve("strings.txt")));
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertEquals(expected.toString(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertTrue(Files.size(file) < expected.length() / 2);
+    }
+
+    @Test
+    void write_loneSurrogate_replacedAndNextLineWritten() throws IOException {
+        FilterConfig config = createConfig("");
+        fileWriter = new FileWriter(config);
+
+        fileWriter.write(DataType.STRING, "bad\uD800");
+        fileWriter.write(DataType.STRING, "ok");
+        fileWriter.close();
+
+        assertFileContent("strings.txt", "bad?\nok\n");
+    }
+
     // Вспомогательный метод для проверки содержимого файла с детальной диагностикой
     private void assertFileContent(String fileName, String expectedContent) throws IOException {
         Path filePath = tempDir.resolve(fileName);
@@ -202,4 +261,4 @@ class FileWriterTest {
                 .replace("\r", "\\r")
                 .replace("\t", "\\t");
     }
-}
\ No newline at end of file
+}
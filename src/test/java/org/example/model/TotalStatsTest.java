@@ -5,6 +5,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.example.engine.DataFilterEngine;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TotalStatsTest {
@@ -54,7 +65,7 @@ class TotalStatsTest {
         assertEquals(3, stats.getTypeCnt());
         assertEquals(-5, stats.getMin());
         assertEquals(10, stats.getMax());
-        assertEquals(5, stats.getSum()); // 10 + (-5) + 0
+        assertEquals(BigInteger.valueOf(5), stats.getSum()); // 10 + (-5) + 0
         assertEquals(5 / 3.0, stats.getMiddle());
     }
 
@@ -165,4 +176,224 @@ class TotalStatsTest {
         assertEquals(DataType.FLOAT, typeDetector.detectType("1.7976931348623157E308"));
         assertEquals(DataType.INTEGER, typeDetector.detectType("2147483648")); // > Integer.MAX_VALUE but fits in Long
     }
-}
\ No newline at end of file
+
+    @Test
+    void merge_combinesStatisticsOfWorkers() {
+        TotalStats other = new TotalStats();
+        for (String value : new String[]{"10", "2.5", "abc"}) {
+            totalStats.updateStat(typeDetector.detectType(value), value);
+        }
+        for (String value : new String[]{"-3", "7.5", "hello"}) {
+            other.updateStat(typeDetector.detectType(value), value);
+        }
+
+        totalStats.merge(other);
+        totalStats.merge(new TotalStats());
+
+        assertEquals(2, totalStats.getIntegerStatistic().getTypeCnt());
+        assertEquals(-3, totalStats.getIntegerStatistic().getMin());
+        assertEquals(10, totalStats.getIntegerStatistic().getMax());
+        assertEquals(BigInteger.valueOf(7), totalStats.getIntegerStatistic().getSum());
+        assertEquals(10.0, totalStats.getFloatStatistic().getSum(), 0.001);
+        assertEquals(3, totalStats.getStringStatistic().getMinLen());
+        assertEquals(5, totalStats.getStringStatistic().getMaxLen());
+    }
+
+    @Test
+    void writeTo_readFrom_roundTrip() throws IOException {
+        for (String value : new String[]{"10", "-3", "2.5", "hello", ""}) {
+            totalStats.updateStat(typeDetector.detectType(value), value);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        totalStats.writeTo(new DataOutputStream(bytes));
+        TotalStats restored = TotalStats.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(totalStats, restored);
+        assertEquals(2, restored.getIntegerStatistic().getTypeCnt());
+        assertEquals(2, restored.getStringStatistic().getTypeCnt());
+    }
+
+    @Test
+    void integerSum_spillsToBigIntegerOnOverflow() {
+        String max = String.valueOf(Long.MAX_VALUE);
+        for (int i = 0; i < 3; i++) {
+            totalStats.updateStat(DataType.INTEGER, max);
+        }
+        totalStats.updateStat(DataType.INTEGER, "-1");
+
+        IntegerStatistic stats = totalStats.getIntegerStatistic();
+        assertEquals(4L, stats.getTypeCnt());
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(3)).subtract(BigInteger.ONE),
+                stats.getSum());
+        assertEquals(Long.MAX_VALUE * 0.75, stats.getMiddle(), 1e6);
+    }
+
+    @Test
+    void integerStatistic_tracksValuesBeyondLong() {
+        TypeDetector bigDetector = new TypeDetector(true);
+        ParsedValue parsed = new ParsedValue();
+        TotalStats other = new TotalStats();
+        for (String value : new String[]{"5", "99999999999999999999", "-99999999999999999999"}) {
+            assertEquals(DataType.INTEGER, bigDetector.classify(value, parsed));
+            other.updateStat(parsed, value);
+        }
+        totalStats.merge(other);
+
+        IntegerStatistic stats = totalStats.getIntegerStatistic();
+        assertEquals(3L, stats.getTypeCnt());
+        assertEquals(new BigInteger("-99999999999999999999"), stats.getExactMin());
+        assertEquals(new BigInteger("99999999999999999999"), stats.getExactMax());
+        assertEquals(BigInteger.valueOf(5), stats.getSum());
+    }
+
+    @Test
+    void quantiles_areWithinOnePercent() {
+        for (int i = 1; i <= 10_000; i++) {
+            totalStats.updateStat(DataType.INTEGER, String.valueOf(i));
+            totalStats.updateStat(DataType.FLOAT, String.valueOf(-i / 100.0));
+            totalStats.updateStat(DataType.STRING, "x".repeat(i % 100 + 1));
+        }
+
+        IntegerStatistic ints = totalStats.getIntegerStatistic();
+        assertEquals(5000, ints.getQuantile(0.50), 50);
+        assertEquals(9500, ints.getQuantile(0.95), 95);
+        assertEquals(9900, ints.getQuantile(0.99), 99);
+        assertEquals(10_000, ints.getQuantile(1.0), 1e-9, "Clamped to max");
+        assertEquals(-50.0, totalStats.getFloatStatistic().getQuantile(0.50), 0.5);
+        assertEquals(-95.0, totalStats.getFloatStatistic().getQuantile(0.05), 0.95);
+        assertEquals(96, totalStats.getStringStatistic().getLengthQuantile(0.95), 1);
+    }
+
+    @Test
+    void quantiles_mergeLikeSingleStream() {
+        TotalStats left = new TotalStats();
+        TotalStats right = new TotalStats();
+        for (int i = 0; i < 1000; i++) {
+            String value = String.valueOf(i * 7 % 1000);
+            totalStats.updateStat(DataType.INTEGER, value);
+            (i % 2 == 0 ? left : right).updateStat(DataType.INTEGER, value);
+        }
+        left.merge(right);
+
+        assertEquals(totalStats.getIntegerStatistic().getHistogram(), left.getIntegerStatistic().getHistogram());
+        assertEquals(totalStats.getIntegerStatistic().getQuantile(0.9), left.getIntegerStatistic().getQuantile(0.9));
+    }
+
+    @Test
+    void distinctCounts_estimateWithinTwoPercentAndMerge() {
+        TotalStats left = new TotalStats();
+        TotalStats right = new TotalStats();
+        left.enableDistinctCounts();
+        right.enableDistinctCounts();
+        for (int i = 0; i < 200_000; i++) {
+            String value = "value" + (i % 100_000);
+            (i % 2 == 0 ? left : right).updateStat(DataType.STRING, value);
+        }
+        totalStats.merge(left);
+        totalStats.merge(right);
+
+        assertEquals(100_000, totalStats.getStringStatistic().getDistinctCount(), 2_000);
+        assertEquals(-1, totalStats.getIntegerStatistic().getDistinctCount(), "No integers seen, no estimate");
+    }
+
+    @Test
+    void distinctCounts_unknownWhenMergedWithUntrackedValues() {
+        TotalStats tracked = new TotalStats();
+        tracked.enableDistinctCounts();
+        tracked.updateStat(DataType.INTEGER, "1");
+        TotalStats untracked = new TotalStats();
+        untracked.updateStat(DataType.INTEGER, "2");
+
+        tracked.merge(untracked);
+
+        assertNull(tracked.getIntegerStatistic().getDistinct());
+    }
+
+    @Test
+    void topStrings_findHeavyHittersWithinErrorBounds() {
+        TotalStats left = new TotalStats();
+        TotalStats right = new TotalStats();
+        left.enableTopStrings(3);
+        right.enableTopStrings(3);
+        Random random = new Random(1);
+        Map<String, Long> exact = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            // Три частые строки на фоне тысяч редких
+            String value = switch (i % 10) {
+                case 0, 1, 2 -> "alpha";
+                case 3, 4 -> "beta";
+                case 5 -> "gamma";
+                default -> "noise" + random.nextInt(5_000);
+            };
+            exact.merge(value, 1L, Long::sum);
+            (i < 25_000 ? left : right).updateStat(DataType.STRING, value);
+        }
+        totalStats.merge(left);
+        totalStats.merge(right);
+
+        List<SpaceSaving.Entry> top = totalStats.getStringStatistic().getTopStrings().top();
+        assertEquals(List.of("alpha", "beta", "gamma"), top.stream().map(SpaceSaving.Entry::value).toList());
+        for (SpaceSaving.Entry entry : top) {
+            long actual = exact.get(entry.value());
+            assertTrue(entry.count() - entry.error() <= actual && actual <= entry.count(), entry.toString());
+        }
+    }
+
+    @Test
+    void patternTypes_keepMinMaxInTypeOrderAndSurviveMergeAndRoundTrip() throws IOException {
+        TotalStats left = new TotalStats();
+        TotalStats right = new TotalStats();
+        left.updateStat(DataType.IPV4, "9.255.0.1");
+        left.updateStat(DataType.IPV4, "10.0.0.2");
+        right.updateStat(DataType.IPV4, "192.168.1.1");
+        right.updateStat(DataType.HEX, "0x0ff");
+        right.updateStat(DataType.HEX, "0xA");
+        right.updateStat(DataType.DATE, "2024-01-31");
+
+        totalStats.merge(left);
+        totalStats.merge(right);
+
+        // Численно, а не лексически: "10.0.0.2" > "9.255.0.1", 0x0ff > 0xA
+        PatternStatistic ipv4 = totalStats.getPatternStatistic(DataType.IPV4);
+        assertEquals(3, ipv4.getTypeCnt());
+        assertEquals("9.255.0.1", ipv4.getMin());
+        assertEquals("192.168.1.1", ipv4.getMax());
+        assertEquals("0xA", totalStats.getPatternStatistic(DataType.HEX).getMin());
+        assertEquals("0x0ff", totalStats.getPatternStatistic(DataType.HEX).getMax());
+        assertEquals(6, totalStats.getTotalCount());
+        assertEquals(0, totalStats.getCount(DataType.UUID));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        totalStats.writeTo(new DataOutputStream(bytes));
+        TotalStats restored = TotalStats.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(totalStats, restored);
+        assertEquals("2024-01-31", restored.getPatternStatistic(DataType.DATE).getMax());
+        assertNull(restored.getPatternStatistic(DataType.UUID).getMin());
+    }
+
+    @Test
+    void bigIntegers_exactMinMaxWithOnlyOutOfRangeValues() {
+        ParsedValue parsed = new ParsedValue();
+        TypeDetector bigDetector = new TypeDetector(true);
+        for (String value : new String[]{"9223372036854775808", "98765432109876543210"}) {
+            bigDetector.classify(value, parsed);
+            totalStats.updateStat(parsed, value);
+        }
+
+        IntegerStatistic stats = totalStats.getIntegerStatistic();
+        assertEquals(new BigInteger("9223372036854775808"), stats.getExactMin());
+        assertEquals(new BigInteger("98765432109876543210"), stats.getExactMax());
+        assertTrue(stats.getQuantile(0.5) >= 9.223372036854775808e18, "Quantile is not clamped to a bogus bound");
+
+        // Отрицательное вне диапазона и обычные long: экстремумы из обеих частей
+        bigDetector.classify("-9223372036854775809", parsed);
+        totalStats.updateStat(parsed, "-9223372036854775809");
+        totalStats.updateStat(DataType.INTEGER, "5");
+        assertEquals(new BigInteger("-9223372036854775809"), stats.getExactMin());
+        assertEquals(new BigInteger("98765432109876543210"), stats.getExactMax());
+    }
+}
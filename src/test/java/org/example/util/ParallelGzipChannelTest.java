@@ -0,0 +1,131 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelGzipChannelTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] lines(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(random.nextInt(3) == 0 ? Long.toString(random.nextLong()) : "line " + random.nextInt(1000))
+                    .append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] data, int level) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {{ def.setLevel(level); }}) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private Path write(String name, byte[]... parts) throws IOException {
+        Path file = tempDir.resolve(name);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (byte[] part : parts) {
+                out.write(part);
+            }
+        }
+        return file;
+    }
+
+    private static byte[] readAll(Path file, int threads) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (ReadableByteChannel channel =
+                     new ParallelGzipChannel(FileChannel.open(file, StandardOpenOption.READ), threads, SEGMENT_SIZE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(10_000);
+            while (channel.read(buffer) >= 0) {
+                result.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+        }
+        return result.toByteArray();
+    }
+
+    @Test
+    void read_multiMemberFile_matchesConcatenatedMembers() throws IOException {
+        Random random = new Random(7);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        byte[][] members = new byte[60][];
+        for (int i = 0; i < members.length; i++) {
+            byte[] data = lines(random, 200 + random.nextInt(800));
+            expected.write(data);
+            members[i] = gzip(data, Deflater.DEFAULT_COMPRESSION);
+        }
+        Path file = write("multi.gz", members);
+
+        assertArrayEquals(expected.toByteArray(), readAll(file, 4));
+        assertArrayEquals(expected.toByteArray(), readAll(file, 1));
+    }
+
+    @Test
+    void read_singleLargeMember_fallsBackToSequential() throws IOException {
+        byte[] data = lines(new Random(11), 50_000);
+        Path file = write("single.gz", gzip(data, Deflater.DEFAULT_COMPRESSION));
+
+        assertArrayEquals(data, readAll(file, 4));
+    }
+
+    @Test
+    void read_headerLikeBytesInsideStoredMember_areNotTakenAsBoundary() throws IOException {
+        // Несжатый член содержит байты, похожие на заголовок gzip, в каждом отрезке
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        byte[] fakeHeader = {0x1F, (byte) 0x8B, 8, 0, 0, 0, 0, 0, 0, 3};
+        Random random = new Random(3);
+        while (data.size() < 20 * SEGMENT_SIZE) {
+            data.write(lines(random, 50));
+            data.write(fakeHeader);
+            data.write('\n');
+        }
+        byte[] second = lines(random, 1000);
+        Path file = write("stored.gz", gzip(data.toByteArray(), Deflater.NO_COMPRESSION), gzip(second, 6));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(data.toByteArray());
+        expected.write(second);
+        assertArrayEquals(expected.toByteArray(), readAll(file, 4));
+    }
+
+    @Test
+    void read_trailingGarbage_isIgnored() throws IOException {
+        byte[] data = lines(new Random(5), 5000);
+        byte[] garbage = new byte[3 * SEGMENT_SIZE];
+        Path file = write("padded.gz", gzip(data, 1), garbage);
+
+        assertArrayEquals(data, readAll(file, 4));
+    }
+
+    @Test
+    void read_corruptedMember_throws() throws IOException {
+        byte[] member = gzip(lines(new Random(9), 20_000), 6);
+        member[member.length / 2] ^= 0x55;
+        Path file = write("broken.gz", member);
+
+        assertThrows(ZipException.class, () -> readAll(file, 4));
+    }
+}
@@ -0,0 +1,190 @@
+package org.example.util;
+
+import org.example.model.DataType;
+import org.example.model.ParsedValue;
+import org.example.model.TypeRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeDetectorTest {
+
+    private final TypeDetector typeDetector = new TypeDetector();
+
+    // Прежняя реализация на исключениях — эталон для сравнения
+    private static DataType legacyDetect(String s) {
+        if (s.isEmpty()) return DataType.STRING;
+        try {
+            Long.parseLong(s);
+            return DataType.INTEGER;
+        } catch (Exception e) {
+            try {
+                Double.parseDouble(s);
+                return DataType.FLOAT;
+            } catch (Exception ex) {
+                return DataType.STRING;
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "", " ", "-", "+", ".", "e", "0", "-0", "+7", "007", "42", "-100",
+            "9223372036854775807", "9223372036854775808", "-9223372036854775808", "-9223372036854775809",
+            "98765432109876543210", "3.14", "-0.5", ".5", "5.", "1e10", "1E-5", "1e", "1e+", "1.2.3",
+            "1f", "1.5D", "1e5f", "1ff", "NaN", "-NaN", "+Infinity", "-Infinity", "Infinityd", "nan",
+            "0x1p3", "0X1.8P-1", "-0x.8p1d", "0x1", "0x.p1", "00x1p1", "0xGp1",
+            " 42", "42 ", "\t3.14\n", " 1e5 ", " ", "1 2", "123ABC", "abc", "--1", "+-1",
+            "١٢", "-١", "١.5", "１２", " ١"
+    })
+    void detectType_matchesLegacyBehaviour(String s) {
+        assertEquals(legacyDetect(s), typeDetector.detectType(s), () -> "Input: '" + s + "'");
+    }
+
+    @Test
+    void detectType_matchesLegacyBehaviourOnRandomInput() {
+        String alphabet = "0123456789+-.eExXpPfFdDaNIny \t١";
+        Random random = new Random(42);
+        for (int n = 0; n < 200_000; n++) {
+            int len = random.nextInt(8);
+            StringBuilder sb = new StringBuilder(len);
+            for (int k = 0; k < len; k++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String s = sb.toString();
+            assertEquals(legacyDetect(s), typeDetector.detectType(s), () -> "Input: '" + s + "'");
+        }
+    }
+
+    @Test
+    void detectType_worksOnSubSequence() {
+        String line = "abc-17xyz";
+        assertEquals(DataType.INTEGER, typeDetector.detectType(line, 3, 6));
+        assertEquals(DataType.STRING, typeDetector.detectType(line, 0, 6));
+        assertEquals(DataType.STRING, typeDetector.detectType(line, 3, 3));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "0", "-0", "+7", "-9223372036854775808", "9223372036854775807",
+            "3.14", "-0.0", ".5", "5.", "1e22", "1e23", "123456789012345678", "98765432109876543210",
+            "0.1", "2.2250738585072014E-308", "4.9e-324", "1.7976931348623157E308", "1e400", "1.5f",
+            "0x1.8p1", "-NaN", "-Infinity", " 2.5 ", "9007199254740993.0", "1.000000000000000000001"
+    })
+    void classify_returnsParsedValue(String s) {
+        ParsedValue parsed = new ParsedValue();
+        DataType type = typeDetector.classify(s, parsed);
+
+        assertEquals(type, parsed.getType());
+        if (type == DataType.INTEGER) {
+            assertEquals(Long.parseLong(s), parsed.getLongValue());
+        } else {
+            assertEquals(DataType.FLOAT, type);
+            assertEquals(Double.doubleToRawLongBits(Double.parseDouble(s)),
+                    Double.doubleToRawLongBits(parsed.getDoubleValue()), () -> "Input: '" + s + "'");
+        }
+    }
+
+    @Test
+    void classify_matchesParseDoubleOnRandomFloats() {
+        Random random = new Random(7);
+        ParsedValue parsed = new ParsedValue();
+        for (int n = 0; n < 100_000; n++) {
+            String s = switch (n % 3) {
+                case 0 -> Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20));
+                case 1 -> (random.nextInt(2000) - 1000) + "." + random.nextInt(1_000_000);
+                default -> random.nextInt(100_000) + "e" + (random.nextInt(60) - 30);
+            };
+            typeDetector.classify(s, parsed);
+            assertEquals(Double.doubleToRawLongBits(Double.parseDouble(s)),
+                    Double.doubleToRawLongBits(parsed.getDoubleValue()), () -> "Input: '" + s + "'");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"9223372036854775808", "-9223372036854775809", "+98765432109876543210", "١٢٣٤٥٦٧٨٩٠١٢٣٤٥٦٧٨٩٠"})
+    void classify_bigIntegersModeKeepsOverflowingIntegers(String s) {
+        ParsedValue parsed = new ParsedValue();
+
+        assertEquals(DataType.INTEGER, new TypeDetector(true).classify(s, parsed));
+        assertEquals(new java.math.BigInteger(s), parsed.getBigValue());
+        assertNotEquals(DataType.INTEGER, typeDetector.detectType(s), "Default mode is unchanged");
+
+        new TypeDetector(true).classify("42", parsed);
+        assertNull(parsed.getBigValue());
+        assertEquals(42, parsed.getLongValue());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "2024-02-29, DATE", "1999-12-31, DATE", "2024-13-01, STRING", "2024-1-01, STRING",
+            "123e4567-e89b-12d3-a456-426614174000, UUID", "123E4567-E89B-12D3-A456-426614174000, UUID",
+            "123e4567-e89b-12d3-a456-42661417400, STRING",
+            "0xFF, HEX", "0x1f, HEX", "0x, STRING", "0x1p3, FLOAT",
+            "192.168.0.1, IPV4", "255.255.255.255, IPV4", "256.1.1.1, STRING", "01.2.3.4, STRING", "1.2.3, STRING",
+            "2024, INTEGER", "1.5, FLOAT", "hello, STRING"
+    })
+    void classify_recognizesEnabledPatternTypes(String s, DataType expected) {
+        PatternClassifier patterns = PatternClassifier.forTypes(
+                List.of(DataType.DATE, DataType.UUID, DataType.HEX, DataType.IPV4));
+        ParsedValue parsed = new ParsedValue();
+
+        assertEquals(expected, new TypeDetector(false, patterns).classify(s, parsed));
+        assertEquals(expected, parsed.getType());
+        assertEquals(TypeRegistry.of(expected) != null ? DataType.STRING : expected, typeDetector.detectType(s),
+                "Default mode is unchanged");
+    }
+
+    @Test
+    void classify_recognizesOnlyEnabledPatternTypes() {
+        TypeDetector datesOnly = new TypeDetector(false, PatternClassifier.forTypes(List.of(DataType.DATE)));
+
+        assertEquals(DataType.DATE, datesOnly.detectType("2024-01-15"));
+        assertEquals(DataType.STRING, datesOnly.detectType("10.0.0.1"));
+        assertEquals(DataType.STRING, datesOnly.detectType("0xFF"));
+        assertTrue(datesOnly.detects(DataType.DATE));
+        assertFalse(datesOnly.detects(DataType.IPV4));
+        assertFalse(typeDetector.detects(DataType.DATE));
+        assertTrue(typeDetector.detects(DataType.STRING));
+        assertThrows(IllegalArgumentException.class, () -> PatternClassifier.forTypes(List.of(DataType.STRING)));
+    }
+
+    // Автомат обязан совпадать с java.util.regex на тех же шаблонах
+    @Test
+    void patternClassifier_matchesJavaRegexOnRandomStrings() {
+        List<DataType> types = List.of(DataType.DATE, DataType.UUID, DataType.HEX, DataType.IPV4);
+        PatternClassifier classifier = PatternClassifier.forTypes(types);
+        List<Pattern> regexes = types.stream()
+                .map(type -> Pattern.compile(TypeRegistry.of(type).pattern()))
+                .toList();
+        String alphabet = "0123456789abcdefxX.-:";
+        String[] seeds = {"2024-06-30", "123e4567-e89b-12d3-a456-426614174000", "0x1F", "10.20.250.255"};
+        Random random = new Random(11);
+        for (int n = 0; n < 100_000; n++) {
+            StringBuilder sb = new StringBuilder(seeds[n % seeds.length]);
+            // Несколько случайных замен, вставок и удалений около правильного значения
+            for (int edits = random.nextInt(3); edits > 0; edits--) {
+                int at = random.nextInt(sb.length() + 1);
+                char c = alphabet.charAt(random.nextInt(alphabet.length()));
+                switch (random.nextInt(3)) {
+                    case 0 -> sb.insert(at, c);
+                    case 1 -> { if (at < sb.length()) sb.setCharAt(at, c); }
+                    default -> { if (at < sb.length()) sb.deleteCharAt(at); }
+                }
+            }
+            String s = sb.toString();
+            DataType expected = null;
+            for (int i = 0; i < types.size() && expected == null; i++) {
+                if (regexes.get(i).matcher(s).matches()) expected = types.get(i);
+            }
+            assertEquals(expected, classifier.match(s, 0, s.length()), () -> "Input: '" + s + "'");
+        }
+    }
+}